@@ -0,0 +1,57 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.dao.EmployeeIdFilter;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the application backed by the same embedded {@code MemoryBackend} it uses at runtime, so benchmark
+ * results are reproducible offline. Arguments use the command line form, which wins over
+ * {@code application.properties}.
+ */
+final class BenchmarkApplication {
+
+  private static final int SEED_BATCH_SIZE = 10_000;
+
+  private BenchmarkApplication() {
+  }
+
+  static ConfigurableApplicationContext start(String... args) {
+    return new SpringApplicationBuilder(ChallengeApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(withDefaults(Arrays.stream(args)));
+  }
+
+  static ConfigurableApplicationContext startWebServer(String... args) {
+    return new SpringApplicationBuilder(ChallengeApplication.class)
+        .run(withDefaults(Stream.concat(Stream.of("--server.port=0"), Arrays.stream(args))));
+  }
+
+  static int port(ConfigurableApplicationContext context) {
+    return ((WebServerApplicationContext) context).getWebServer().getPort();
+  }
+
+  static void seed(ConfigurableApplicationContext context, List<Employee> employees) {
+    EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+    for (int from = 0; from < employees.size(); from += SEED_BATCH_SIZE) {
+      employeeRepository.insert(employees.subList(from, Math.min(from + SEED_BATCH_SIZE, employees.size())));
+    }
+
+    context.getBean(OrgChartIndex.class).rebuild();
+    context.getBean(EmployeeIdFilter.class).rebuild();
+  }
+
+  private static String[] withDefaults(Stream<String> args) {
+    return Stream.concat(Stream.of("--logging.level.com.mindex=WARN"), args).toArray(String[]::new);
+  }
+}
@@ -0,0 +1,87 @@
+package com.mindex.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken by {@link DataBootstrap} to seed synthetic datastores of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DataBootstrapBenchmark {
+
+  @Param({"10000", "100000"})
+  public int size;
+
+  private File employeeDatastore;
+
+  private File compensationDatastore;
+
+  private ConfigurableApplicationContext context;
+
+  private DataBootstrap dataBootstrap;
+
+  private EmployeeRepository employeeRepository;
+
+  private CompensationRepository compensationRepository;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    employeeDatastore = File.createTempFile("employee_database", ".json");
+    compensationDatastore = File.createTempFile("compensation_database", ".json");
+    objectMapper.writeValue(employeeDatastore, SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, size));
+    objectMapper.writeValue(compensationDatastore, SyntheticOrg.compensations(size));
+
+    context = BenchmarkApplication.start(
+        "--bootstrap.employees=file:" + employeeDatastore.getAbsolutePath(),
+        "--bootstrap.compensations=file:" + compensationDatastore.getAbsolutePath());
+    dataBootstrap = context.getBean(DataBootstrap.class);
+    employeeRepository = context.getBean(EmployeeRepository.class);
+    compensationRepository = context.getBean(CompensationRepository.class);
+  }
+
+  @Setup(Level.Invocation)
+  public void clear() {
+    employeeRepository.deleteAll();
+    compensationRepository.deleteAll();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    employeeDatastore.delete();
+    compensationDatastore.delete();
+  }
+
+  @Benchmark
+  public void load() {
+    dataBootstrap.load();
+  }
+}
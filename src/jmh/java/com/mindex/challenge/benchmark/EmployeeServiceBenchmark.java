@@ -0,0 +1,65 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeServiceBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private ConfigurableApplicationContext context;
+
+  private EmployeeService employeeService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkApplication.start();
+    employeeService = context.getBean(EmployeeService.class);
+    BenchmarkApplication.seed(context, SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, size));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Employee read() {
+    return employeeService.read(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(size)));
+  }
+
+  @Benchmark
+  public Employee create() {
+    Employee employee = new Employee();
+    employee.setFirstName("Benchmark");
+    employee.setLastName("Employee");
+    employee.setPosition("Developer I");
+    employee.setDepartment("Engineering");
+    return employeeService.create(employee);
+  }
+}
@@ -0,0 +1,82 @@
+package com.mindex.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encode and decode cost of employees with deeply nested {@code directReports}, using the same
+ * {@link ObjectMapper} configuration Spring MVC applies to responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonBenchmark {
+
+  // Jackson rejects documents nested more than 1000 levels deep by default
+  @Param({"10", "100", "500"})
+  public int depth;
+
+  @Param({"1", "4"})
+  public int width;
+
+  private ObjectMapper objectMapper;
+
+  private Employee employee;
+
+  // The same employee as stored and returned by default, with direct reports as ids only
+  private Employee unexpandedEmployee;
+
+  private ReportingStructure reportingStructure;
+
+  private byte[] employeeJson;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    employee = SyntheticOrg.nested(depth, width);
+    reportingStructure = new ReportingStructure(employee, depth * width);
+    employeeJson = objectMapper.writeValueAsBytes(employee);
+    unexpandedEmployee = objectMapper.readValue(employeeJson, Employee.class);
+  }
+
+  @Benchmark
+  public byte[] encodeEmployee() throws IOException {
+    return objectMapper.writeValueAsBytes(employee);
+  }
+
+  @Benchmark
+  public byte[] encodeUnexpandedEmployee() throws IOException {
+    return objectMapper.writeValueAsBytes(unexpandedEmployee);
+  }
+
+  @Benchmark
+  public byte[] encodeReportingStructure() throws IOException {
+    return objectMapper.writeValueAsBytes(reportingStructure);
+  }
+
+  @Benchmark
+  public Employee decodeEmployee() throws IOException {
+    return objectMapper.readValue(employeeJson, Employee.class);
+  }
+}
@@ -0,0 +1,75 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReportingStructureBenchmark {
+
+  @Param({"WIDE", "DEEP", "BALANCED"})
+  public SyntheticOrg.Shape shape;
+
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  private ConfigurableApplicationContext context;
+
+  private EmployeeService employeeService;
+
+  private OrgChartIndex orgChartIndex;
+
+  private String rootId;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkApplication.start();
+    employeeService = context.getBean(EmployeeService.class);
+    orgChartIndex = context.getBean(OrgChartIndex.class);
+
+    List<Employee> employees = SyntheticOrg.generate(shape, size);
+    BenchmarkApplication.seed(context, employees);
+    rootId = employees.get(0).getEmployeeId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public ReportingStructure getReportingStructure() {
+    return employeeService.getReportingStructure(rootId);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void rebuildOrgChartIndex() {
+    orgChartIndex.rebuild();
+  }
+}
@@ -0,0 +1,95 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the repository lookups behind the reporting-structure traversal: point lookups on the
+ * employeeId index against a full scan, and full documents against the directReports projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryLookupBenchmark {
+
+  @Param({"10000", "100000"})
+  public int size;
+
+  // Number of employees resolved per traversal level
+  @Param({"10", "1000"})
+  public int levelSize;
+
+  private ConfigurableApplicationContext context;
+
+  private EmployeeRepository employeeRepository;
+
+  private List<String> level;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkApplication.start();
+    employeeRepository = context.getBean(EmployeeRepository.class);
+    BenchmarkApplication.seed(context, SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, size));
+  }
+
+  @Setup(Level.Iteration)
+  public void pickLevel() {
+    int first = ThreadLocalRandom.current().nextInt(size - levelSize);
+    level = new ArrayList<>(levelSize);
+    for (int i = first; i < first + levelSize; i++) {
+      level.add(SyntheticOrg.employeeId(i));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Employee findByEmployeeId() {
+    return employeeRepository.findByEmployeeId(level.get(0));
+  }
+
+  // What an unindexed employeeId lookup costs: a scan of the whole collection
+  @Benchmark
+  public long scanForEmployeeId() {
+    String employeeId = level.get(0);
+    return employeeRepository.findAll().stream()
+        .filter(employee -> employeeId.equals(employee.getEmployeeId()))
+        .count();
+  }
+
+  @Benchmark
+  public List<Employee> findByEmployeeIdIn() {
+    return employeeRepository.findByEmployeeIdIn(level);
+  }
+
+  @Benchmark
+  public List<Employee> findDirectReportsByEmployeeIdIn() {
+    return employeeRepository.findDirectReportsByEmployeeIdIn(level);
+  }
+}
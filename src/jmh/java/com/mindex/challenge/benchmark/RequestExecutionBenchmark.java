@@ -0,0 +1,82 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives more concurrent requests than the platform Tomcat pool has workers, comparing it against running
+ * every request on its own virtual thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@Threads(256)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RequestExecutionBenchmark {
+
+  private static final int ORG_SIZE = 10_000;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  private ConfigurableApplicationContext context;
+
+  private HttpClient httpClient;
+
+  private String baseUrl;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = "virtual".equals(threads)
+        ? BenchmarkApplication.startWebServer("--spring.threads.virtual.enabled=true")
+        : BenchmarkApplication.startWebServer("--server.tomcat.threads.max=32");
+    BenchmarkApplication.seed(context, SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, ORG_SIZE));
+
+    httpClient = HttpClient.newHttpClient();
+    baseUrl = "http://localhost:" + BenchmarkApplication.port(context) + "/employee/";
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int readEmployee() throws IOException, InterruptedException {
+    return get(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(ORG_SIZE)));
+  }
+
+  @Benchmark
+  public int getReportingStructure() throws IOException, InterruptedException {
+    return get(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(ORG_SIZE)) + "/reporting-structure");
+  }
+
+  private int get(String path) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+}
@@ -0,0 +1,60 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.EmployeeSearchIndex;
+import com.mindex.challenge.data.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of typeahead queries against the search index alone, so the p99 reported is that of
+ * the index rather than of Mongo or the web stack. Queries range from a single letter matching most of the
+ * org chart to several words matching a few employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+  @Param({"100000", "1000000"})
+  public int size;
+
+  @Param({"l", "lenn", "developer ii", "john lennon eng"})
+  public String query;
+
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    employeeSearchIndex = new EmployeeSearchIndex();
+    for (Employee employee : SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, size)) {
+      employeeSearchIndex.update(employee);
+    }
+  }
+
+  @Benchmark
+  public List<String> firstPage() {
+    return employeeSearchIndex.search(query, 0, 21);
+  }
+
+  @Benchmark
+  public List<String> fifthPage() {
+    return employeeSearchIndex.search(query, 80, 21);
+  }
+}
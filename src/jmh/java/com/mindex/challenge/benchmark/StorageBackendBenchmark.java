@@ -0,0 +1,107 @@
+package com.mindex.challenge.benchmark;
+
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the storage backends selected by {@code mongo.backend}. Sample time mode reports the latency
+ * distribution, p99 included, of repository reads and writes that bypass the employee cache. The heap in use
+ * once the org chart is seeded is printed at the start of every trial.
+ *
+ * <p>An external deployment may be added with {@code -p backend=external} and {@code -Dmongo.uri=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StorageBackendBenchmark {
+
+  @Param({"memory", "h2"})
+  public String backend;
+
+  @Param({"100000"})
+  public int size;
+
+  private ConfigurableApplicationContext context;
+
+  private EmployeeRepository employeeRepository;
+
+  private File h2File;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    h2File = File.createTempFile("challenge", ".mv");
+    h2File.delete();
+
+    long heapBefore = usedHeap();
+    context = BenchmarkApplication.start("--mongo.backend=" + backend,
+        "--mongo.h2.file=" + h2File.getAbsolutePath(),
+        "--mongo.uri=" + System.getProperty("mongo.uri", "mongodb://localhost:27017"));
+    employeeRepository = context.getBean(EmployeeRepository.class);
+    BenchmarkApplication.seed(context, SyntheticOrg.generate(SyntheticOrg.Shape.BALANCED, size));
+
+    System.out.printf("%n%s backend holds %d employees in %d MB of heap, application context included%n", backend, size,
+        (usedHeap() - heapBefore) / (1024 * 1024));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    employeeRepository.deleteAll();
+    context.close();
+    h2File.delete();
+  }
+
+  @Benchmark
+  public Employee findByEmployeeId() {
+    return employeeRepository.findByEmployeeId(SyntheticOrg.employeeId(ThreadLocalRandom.current().nextInt(size)));
+  }
+
+  @Benchmark
+  public List<Employee> findDirectReports() {
+    int manager = ThreadLocalRandom.current().nextInt(size / 10);
+    return employeeRepository.findDirectReportsByEmployeeIdIn(List.of(SyntheticOrg.employeeId(manager)));
+  }
+
+  @Benchmark
+  public Employee save() {
+    // Upserts outside of the seeded ids, so the org chart read by the other benchmarks stays intact
+    Employee employee = new Employee();
+    employee.setEmployeeId(SyntheticOrg.employeeId(size + ThreadLocalRandom.current().nextInt(size)));
+    employee.setFirstName("Benchmark");
+    employee.setLastName("Employee");
+    employee.setPosition("Developer I");
+    employee.setDepartment("Engineering");
+    return employeeRepository.save(employee);
+  }
+
+  private static long usedHeap() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    System.gc();
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
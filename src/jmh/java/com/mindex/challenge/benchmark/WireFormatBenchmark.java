@@ -0,0 +1,100 @@
+package com.mindex.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode cost of the wire formats the API negotiates, for employees with deeply nested
+ * {@code directReports}. Payload sizes, raw and gzipped as {@code server.compression} would send them, are
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+  @Param({"json", "smile", "cbor"})
+  public String format;
+
+  @Param({"10", "100"})
+  public int depth;
+
+  @Param({"1", "4"})
+  public int width;
+
+  private ObjectMapper objectMapper;
+
+  private Employee employee;
+
+  private ReportingStructure reportingStructure;
+
+  private byte[] encodedEmployee;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    objectMapper = mapper(format);
+    employee = SyntheticOrg.nested(depth, width);
+    reportingStructure = new ReportingStructure(employee, depth * width);
+    encodedEmployee = objectMapper.writeValueAsBytes(employee);
+
+    System.out.printf("%nEmployee %d levels deep and %d wide as %s: %d bytes, %d gzipped%n",
+        depth, width, format, encodedEmployee.length, gzip(encodedEmployee).length);
+  }
+
+  @Benchmark
+  public byte[] encodeEmployee() throws IOException {
+    return objectMapper.writeValueAsBytes(employee);
+  }
+
+  @Benchmark
+  public byte[] encodeReportingStructure() throws IOException {
+    return objectMapper.writeValueAsBytes(reportingStructure);
+  }
+
+  @Benchmark
+  public Employee decodeEmployee() throws IOException {
+    return objectMapper.readValue(encodedEmployee, Employee.class);
+  }
+
+  private static ObjectMapper mapper(String format) {
+    switch (format) {
+      case "smile":
+        return Jackson2ObjectMapperBuilder.smile().build();
+      case "cbor":
+        return Jackson2ObjectMapperBuilder.cbor().build();
+      default:
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(bytes);
+    }
+    return compressed.toByteArray();
+  }
+}
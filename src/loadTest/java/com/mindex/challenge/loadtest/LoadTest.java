@@ -0,0 +1,214 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.SyntheticOrg;
+import com.mindex.challenge.dao.EmployeeIdFilter;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the REST API. Boots the application on a random port against the embedded in-memory
+ * backend, seeds a synthetic org chart and drives a mix of {@link Operation}s at a fixed arrival rate.
+ *
+ * <p>The workload is an open model: requests are sent on schedule whether or not earlier ones have completed,
+ * and latency is measured from the scheduled start. A stalled server therefore shows up in the percentiles
+ * instead of quietly lowering the load.
+ *
+ * <p>Results are compared with the stored baseline and the run fails on a regression beyond the tolerance.
+ * With {@code loadTest.updateBaseline} the results become the new baseline instead. A missing baseline fails the
+ * run, so a gate that was never set up cannot pass by recording whatever the first run measured. A baseline that
+ * only pins the settings, as committed before anyone recorded measurements on the gating machine, makes the run
+ * report its results without gating on them.
+ */
+public final class LoadTest {
+
+  private static final int SEED_BATCH_SIZE = 10_000;
+
+  private static final LocalDate FIRST_EFFECTIVE_DATE = LocalDate.of(2000, 1, 1);
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .build();
+
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  // Every compensation gets its own effective date, as there is one per employee per date
+  private final AtomicLong compensations = new AtomicLong();
+
+  private final ObjectMapper objectMapper;
+
+  private final String employeeUrl;
+
+  private final int size;
+
+  private LoadTest(ObjectMapper objectMapper, int port, int size) {
+    this.objectMapper = objectMapper;
+    this.employeeUrl = "http://localhost:" + port + "/employee/";
+    this.size = size;
+  }
+
+  public static void main(String[] args) throws Exception {
+    SyntheticOrg.Shape shape = SyntheticOrg.Shape.valueOf(System.getProperty("loadTest.shape", "BALANCED"));
+    int size = Integer.getInteger("loadTest.size", 10_000);
+    int rate = Integer.getInteger("loadTest.rate", 500);
+    Duration warmup = Duration.parse(System.getProperty("loadTest.warmup", "PT10S"));
+    Duration duration = Duration.parse(System.getProperty("loadTest.duration", "PT60S"));
+    double tolerance = Double.parseDouble(System.getProperty("loadTest.tolerance", "0.2"));
+    Path baselineFile = Path.of(System.getProperty("loadTest.baseline", "src/loadTest/baseline.properties"));
+    Path resultsFile = Path.of(System.getProperty("loadTest.results", "build/results/loadTest/results.properties"));
+    boolean updateBaseline = Boolean.getBoolean("loadTest.updateBaseline");
+
+    LoadTestResults results;
+    try (ConfigurableApplicationContext context = start()) {
+      seed(context, SyntheticOrg.generate(shape, size));
+
+      LoadTest loadTest = new LoadTest(context.getBean(ObjectMapper.class),
+          ((WebServerApplicationContext) context).getWebServer().getPort(), size);
+      System.out.printf("Warming up for %s at %d requests/s%n", warmup, rate);
+      loadTest.run(rate, warmup);
+      System.out.printf("Measuring for %s at %d requests/s against a %s org chart of %d employees%n",
+          duration, rate, shape, size);
+      results = loadTest.run(rate, duration);
+    }
+
+    Properties measured = results.toProperties();
+    measured.setProperty("config.shape", shape.name());
+    measured.setProperty("config.size", String.valueOf(size));
+    measured.setProperty("config.rate", String.valueOf(rate));
+    measured.setProperty("config.duration", duration.toString());
+
+    System.out.println(results.summary());
+    LoadTestResults.write(measured, resultsFile);
+
+    if (updateBaseline) {
+      LoadTestResults.write(measured, baselineFile);
+      System.out.println("Recorded the results as the baseline in " + baselineFile);
+      System.exit(0);
+    }
+
+    if (!Files.exists(baselineFile)) {
+      System.out.println("No baseline at " + baselineFile
+          + ", rerun with -PloadTest.updateBaseline=true to record one");
+      System.exit(1);
+    }
+
+    Properties baseline = LoadTestResults.read(baselineFile);
+    if (!LoadTestResults.hasMeasurements(baseline)) {
+      System.out.println("The baseline in " + baselineFile + " has no measurements yet, so the results are only"
+          + " reported. Rerun with -PloadTest.updateBaseline=true on the gating machine to record them");
+      System.exit(0);
+    }
+
+    List<String> regressions = LoadTestResults.compare(measured, baseline, tolerance);
+    if (regressions.isEmpty()) {
+      System.out.println("No regressions against " + baselineFile);
+      System.exit(0);
+    }
+
+    regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+    System.exit(1);
+  }
+
+  private static ConfigurableApplicationContext start() {
+    return new SpringApplicationBuilder(ChallengeApplication.class)
+        .run("--server.port=0", "--logging.level.com.mindex=WARN");
+  }
+
+  private static void seed(ConfigurableApplicationContext context, List<Employee> employees) {
+    EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+    for (int from = 0; from < employees.size(); from += SEED_BATCH_SIZE) {
+      employeeRepository.insert(employees.subList(from, Math.min(from + SEED_BATCH_SIZE, employees.size())));
+    }
+
+    context.getBean(OrgChartIndex.class).rebuild();
+    context.getBean(EmployeeIdFilter.class).rebuild();
+  }
+
+  private LoadTestResults run(int rate, Duration duration) {
+    LoadTestResults results = new LoadTestResults(duration);
+    long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+    long requests = duration.toNanos() / interval;
+
+    // Closing the executor waits for the requests still in flight
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; i < requests; i++) {
+        long scheduled = start + i * interval;
+        long delay = scheduled - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+
+        Operation operation = Operation.pick(random.nextInt(100));
+        HttpRequest request = request(operation, SyntheticOrg.employeeId(random.nextInt(size)));
+        executor.execute(() -> {
+          boolean succeeded = send(request);
+          results.record(operation, System.nanoTime() - scheduled, succeeded);
+        });
+      }
+    }
+
+    return results;
+  }
+
+  private HttpRequest request(Operation operation, String employeeId) {
+    switch (operation) {
+      case READ:
+        return HttpRequest.newBuilder(URI.create(employeeUrl + employeeId)).GET().build();
+      case REPORTING_STRUCTURE:
+        return HttpRequest.newBuilder(URI.create(employeeUrl + employeeId + "/reporting-structure")).GET().build();
+      default:
+        Compensation compensation = new Compensation(60_000 + random.nextInt(100) * 1_500,
+            FIRST_EFFECTIVE_DATE.plusDays(compensations.getAndIncrement()), employeeId);
+        return HttpRequest.newBuilder(URI.create(employeeUrl + employeeId + "/compensation"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(toJson(compensation)))
+            .build();
+    }
+  }
+
+  private boolean send(HttpRequest request) {
+    try {
+      return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.mindex.challenge.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput, error count and HDR latency percentiles of each {@link Operation} over one measured run, kept as
+ * flat properties so a baseline can be committed and diffed.
+ */
+final class LoadTestResults {
+
+  private static final String[] PERCENTILES = {"50", "90", "99", "99.9"};
+
+  // Tail percentiles beyond p99 are too noisy over a short run to gate on
+  private static final String[] GATED_PERCENTILES = {"50", "99"};
+
+  private final Duration duration;
+
+  private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+  LoadTestResults(Duration duration) {
+    this.duration = duration;
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new ConcurrentHistogram(3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  void record(Operation operation, long latencyNanos, boolean succeeded) {
+    latencies.get(operation).recordValue(latencyNanos);
+    if (!succeeded) {
+      errors.get(operation).increment();
+    }
+  }
+
+  Properties toProperties() {
+    Properties properties = new Properties();
+    double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+
+    for (Operation operation : Operation.values()) {
+      Histogram histogram = latencies.get(operation);
+      String prefix = operation.key() + ".";
+
+      properties.setProperty(prefix + "throughput", format(histogram.getTotalCount() / seconds));
+      properties.setProperty(prefix + "errors", String.valueOf(errors.get(operation).sum()));
+      for (String percentile : PERCENTILES) {
+        properties.setProperty(prefix + "p" + percentile + ".ms",
+            format(millis(histogram.getValueAtPercentile(Double.parseDouble(percentile)))));
+      }
+      properties.setProperty(prefix + "max.ms", format(millis(histogram.getMaxValue())));
+    }
+
+    return properties;
+  }
+
+  String summary() {
+    StringBuilder summary = new StringBuilder(String.format("%-20s %10s %8s", "operation", "req/s", "errors"));
+    for (String percentile : PERCENTILES) {
+      summary.append(String.format(" %10s", "p" + percentile + " ms"));
+    }
+    summary.append(String.format(" %10s%n", "max ms"));
+
+    Properties properties = toProperties();
+    for (Operation operation : Operation.values()) {
+      String prefix = operation.key() + ".";
+      summary.append(String.format("%-20s %10s %8s", operation.key(),
+          properties.getProperty(prefix + "throughput"), properties.getProperty(prefix + "errors")));
+      for (String percentile : PERCENTILES) {
+        summary.append(String.format(" %10s", properties.getProperty(prefix + "p" + percentile + ".ms")));
+      }
+      summary.append(String.format(" %10s%n", properties.getProperty(prefix + "max.ms")));
+    }
+
+    return summary.toString();
+  }
+
+  /**
+   * Returns a description of every way the measured results are worse than the baseline by more than the
+   * tolerance, given as a fraction. Any failed request counts as a regression, and so does a gated value the
+   * baseline has no entry for.
+   */
+  static List<String> compare(Properties measured, Properties baseline, double tolerance) {
+    List<String> regressions = new ArrayList<>();
+
+    for (String key : baseline.stringPropertyNames()) {
+      if (key.startsWith("config.") && !baseline.getProperty(key).equals(measured.getProperty(key))) {
+        regressions.add("baseline was recorded with " + key + "=" + baseline.getProperty(key)
+            + ", rerun with -PloadTest.updateBaseline=true to replace it");
+      }
+    }
+    if (!regressions.isEmpty()) {
+      return regressions;
+    }
+
+    for (Operation operation : Operation.values()) {
+      String prefix = operation.key() + ".";
+
+      long failed = Long.parseLong(measured.getProperty(prefix + "errors"));
+      if (failed > 0) {
+        regressions.add(operation.key() + " had " + failed + " failed requests");
+      }
+
+      String throughput = prefix + "throughput";
+      if (!baseline.containsKey(throughput)) {
+        regressions.add(unrecorded(throughput));
+      } else if (value(measured, throughput) < value(baseline, throughput) * (1 - tolerance)) {
+        regressions.add(describe(throughput, measured, baseline));
+      }
+
+      for (String percentile : GATED_PERCENTILES) {
+        String latency = prefix + "p" + percentile + ".ms";
+        if (!baseline.containsKey(latency)) {
+          regressions.add(unrecorded(latency));
+        } else if (value(measured, latency) > value(baseline, latency) * (1 + tolerance)) {
+          regressions.add(describe(latency, measured, baseline));
+        }
+      }
+    }
+
+    return regressions;
+  }
+
+  /**
+   * Returns whether the baseline holds any measurements rather than only the {@code config.} settings.
+   */
+  static boolean hasMeasurements(Properties baseline) {
+    for (String key : baseline.stringPropertyNames()) {
+      if (!key.startsWith("config.")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static Properties read(Path file) {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return properties;
+  }
+
+  static void write(Properties properties, Path file) {
+    // Sorted, so a rerecorded baseline diffs cleanly against the previous one
+    List<String> lines = new ArrayList<>();
+    new TreeMap<>(properties).forEach((key, value) -> lines.add(key + "=" + value));
+
+    try {
+      if (file.toAbsolutePath().getParent() != null) {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+      }
+      Files.write(file, lines);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String describe(String key, Properties measured, Properties baseline) {
+    return key + " was " + measured.getProperty(key) + " against a baseline of " + baseline.getProperty(key);
+  }
+
+  private static String unrecorded(String key) {
+    return key + " has no baseline, rerun with -PloadTest.updateBaseline=true to record one";
+  }
+
+  private static double value(Properties properties, String key) {
+    return Double.parseDouble(properties.getProperty(key, "0"));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.2f", value);
+  }
+}
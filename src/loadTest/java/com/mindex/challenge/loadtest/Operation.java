@@ -0,0 +1,35 @@
+package com.mindex.challenge.loadtest;
+
+/**
+ * Requests making up the load test workload, each sent for a random employee of the synthetic org chart. The
+ * weights are the percentage of requests of each kind.
+ */
+enum Operation {
+  READ("read", 70),
+  REPORTING_STRUCTURE("reporting-structure", 20),
+  CREATE_COMPENSATION("create-compensation", 10);
+
+  private final String key;
+
+  private final int weight;
+
+  Operation(String key, int weight) {
+    this.key = key;
+    this.weight = weight;
+  }
+
+  String key() {
+    return key;
+  }
+
+  static Operation pick(int percent) {
+    int cumulativeWeight = 0;
+    for (Operation operation : values()) {
+      cumulativeWeight += operation.weight;
+      if (percent < cumulativeWeight) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException("Percent must be below 100: " + percent);
+  }
+}
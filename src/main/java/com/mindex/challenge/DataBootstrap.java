@@ -1,22 +1,54 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.AncestorPathWriter;
 import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeIdFilter;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.EmployeeSearchIndex;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.dao.PayrollSummaryCache;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Component
 public class DataBootstrap {
-  private static final String DATASTORE_LOCATION = "/static/employee_database.json";
+  private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
 
-  private static final String COMPENSATION_DATASTORE_LOCATION = "/static/compensation_database.json";
+  @Value("${bootstrap.employees:classpath:static/employee_database.json}")
+  private Resource employeeDatastore;
+
+  @Value("${bootstrap.compensations:classpath:static/compensation_database.json}")
+  private Resource compensationDatastore;
+
+  @Value("${bootstrap.batch-size:1000}")
+  private int batchSize;
+
+  // Load after the application reports ready instead of during context startup.
+  // Until the load completes, reads only see the part of the data loaded so far
+  @Value("${bootstrap.async:false}")
+  private boolean async;
 
   @Autowired
   private EmployeeRepository employeeRepository;
@@ -24,37 +56,126 @@ public class DataBootstrap {
   @Autowired
   private CompensationRepository compensationRepository;
 
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Autowired
+  private PayrollSummaryCache payrollSummaryCache;
+
+  @Autowired
+  private AncestorPathWriter ancestorPathWriter;
+
   @Autowired
   private ObjectMapper objectMapper;
 
+  private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
   @PostConstruct
   public void init() {
-    InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
-
-    Employee[] employees = null;
-
-    try {
-      employees = objectMapper.readValue(inputStream, Employee[].class);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+    if (!async) {
+      load();
+      loaded.complete(null);
     }
+  }
 
-    for (Employee employee : employees) {
-      employeeRepository.insert(employee);
+  @EventListener(ApplicationReadyEvent.class)
+  public void initAfterReady() {
+    if (async) {
+      // A thread of its own rather than the common pool, which the load itself would otherwise be nested in
+      Thread.ofPlatform().name("bootstrap").start(() -> {
+        try {
+          load();
+          loaded.complete(null);
+        } catch (RuntimeException e) {
+          LOG.error("Failed to bootstrap data", e);
+          loaded.completeExceptionally(e);
+        }
+      });
     }
+  }
+
+  /**
+   * Completes once the data is loaded, or exceptionally with the reason it could not be.
+   */
+  public CompletableFuture<Void> whenLoaded() {
+    return loaded.copy();
+  }
 
-    inputStream = this.getClass().getResourceAsStream(COMPENSATION_DATASTORE_LOCATION);
+  public void load() {
+    long start = System.nanoTime();
 
-    Compensation[] compensations = null;
+    // A persistent backend still holds what was loaded or written before the restart,
+    // so only the in-memory indexes have to be rebuilt from it. Ancestor paths are rewritten
+    // too, in case the org chart was changed without going through the service
+    if (employeeRepository.count() > 0) {
+      orgChartIndex.rebuild();
+      employeeSearchIndex.rebuild();
+      employeeIdFilter.rebuild();
+      ancestorPathWriter.writeAll();
+      payrollSummaryCache.invalidateAll();
+      LOG.info("Skipped bootstrap of an already populated store in [{}] ms",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return;
+    }
 
+    // Employees and compensations are independent collections, so load them side by side on
+    // two threads of their own that are gone once the load is over
+    ExecutorService executor = Executors.newFixedThreadPool(2, Thread.ofPlatform().name("bootstrap-", 0).factory());
+    int employeeCount;
+    int compensationCount;
     try {
-      compensations = objectMapper.readValue(inputStream, Compensation[].class);
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+      CompletableFuture<Integer> employees = CompletableFuture.supplyAsync(
+          () -> load(employeeDatastore, Employee.class, batch -> employeeRepository.insert(batch)), executor);
+      CompletableFuture<Integer> compensations = CompletableFuture.supplyAsync(
+          () -> load(compensationDatastore, Compensation.class, batch -> compensationRepository.insert(batch)),
+          executor);
+
+      employeeCount = employees.join();
+      compensationCount = compensations.join();
+    } finally {
+      executor.shutdown();
     }
 
-    for (Compensation compensation : compensations) {
-      compensationRepository.insert(compensation);
+    orgChartIndex.rebuild();
+    employeeSearchIndex.rebuild();
+    employeeIdFilter.rebuild();
+    ancestorPathWriter.writeAll();
+    payrollSummaryCache.invalidateAll();
+
+    LOG.info("Bootstrapped [{}] employees and [{}] compensations in [{}] ms", employeeCount, compensationCount,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private <T> int load(Resource datastore, Class<T> type, Consumer<List<T>> insertAll) {
+    // Stream the top-level array one record at a time rather than materializing it
+    try (InputStream inputStream = datastore.getInputStream();
+        MappingIterator<T> records = objectMapper.readerFor(type).readValues(inputStream)) {
+      List<T> batch = new ArrayList<>(batchSize);
+      int count = 0;
+
+      while (records.hasNextValue()) {
+        batch.add(records.nextValue());
+        count++;
+
+        if (batch.size() == batchSize) {
+          insertAll.accept(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        insertAll.accept(batch);
+      }
+
+      return count;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
   }
 }
@@ -1,35 +1,148 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 import org.springframework.lang.NonNull;
 
+import java.io.File;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
-@EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
+@EnableMongoRepositories(basePackageClasses = EmployeeRepository.class,
+    excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveMongoRepository.class))
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private static final String BACKEND_MEMORY = "memory";
+    private static final String BACKEND_H2 = "h2";
+    private static final String BACKEND_EXTERNAL = "external";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // memory keeps everything on the heap, h2 persists the embedded server to an MVStore
+    // file, and external connects to the MongoDB deployment at mongo.uri instead
+    @Value("${mongo.backend:memory}")
+    private String backend;
+
+    @Value("${mongo.h2.file:data/challenge.mv}")
+    private String h2File;
+
+    @Value("${mongo.uri:mongodb://localhost:27017}")
+    private String uri;
+
+    @Value("${mongo.database:test}")
+    private String database;
+
+    @Value("${mongo.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @Value("${mongo.pool.min-size:0}")
+    private int poolMinSize;
+
+    @Value("${mongo.pool.max-wait-time:2m}")
+    private Duration poolMaxWaitTime;
+
     @Override
     @NonNull
     protected String getDatabaseName() {
-        return "test";
+        return database;
+    }
+
+    // Create the indexes declared on the mapped documents when the application starts
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnExpression("'${mongo.backend:memory}' != 'external'")
+    public MongoServer mongoServer() {
+        MongoServer server = new MongoServer(mongoBackend());
+        server.bind();
+        return server;
+    }
+
+    // Every command sent by either client is timed under mongodb.driver.commands, and the
+    // connection pools are reported under mongodb.driver.pool.*
+    @Override
+    protected void configureClientSettings(@NonNull MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new ConnectionString(mongoConnectionString()))
+            .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+            .applyToConnectionPoolSettings(pool -> pool
+                .maxSize(poolMaxSize)
+                .minSize(poolMinSize)
+                .maxWaitTime(poolMaxWaitTime.toMillis(), TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)));
     }
 
     @Override
     @NonNull
     public MongoClient mongoClient() {
-        MongoServer server = new MongoServer(new MemoryBackend());
-        InetSocketAddress serverAddress = server.bind();
-        String mongoConnectionString = String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
-        return MongoClients.create(mongoConnectionString);
+        return MongoClients.create(mongoClientSettings());
     }
-}
 
+    // Reactive repositories talk to the same embedded server through the reactive streams driver
+    @Bean
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+        return com.mongodb.reactivestreams.client.MongoClients.create(mongoClientSettings());
+    }
+
+    // Without this the reactive stack would use spring.data.mongodb.database and read another database
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory() {
+        return new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient(), database);
+    }
+
+    private MongoBackend mongoBackend() {
+        switch (backend) {
+            case BACKEND_MEMORY:
+                return new MemoryBackend();
+            case BACKEND_H2:
+                File parent = new File(h2File).getAbsoluteFile().getParentFile();
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IllegalStateException("Could not create directory " + parent);
+                }
+                return new H2Backend(h2File);
+            default:
+                throw new IllegalStateException("Unknown mongo.backend [" + backend + "], expected "
+                    + BACKEND_MEMORY + ", " + BACKEND_H2 + " or " + BACKEND_EXTERNAL);
+        }
+    }
+
+    private String mongoConnectionString() {
+        if (BACKEND_EXTERNAL.equals(backend)) {
+            return uri;
+        }
+
+        InetSocketAddress serverAddress = mongoServer().getLocalAddress();
+        return String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
+    }
+}
 
@@ -0,0 +1,113 @@
+package com.mindex.challenge.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindex.challenge.data.BulkResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bulk ingest of employees and compensations. The payload is either a JSON array or newline delimited JSON
+ * and is parsed one record at a time, inserted in batches, and answered with one NDJSON result line per
+ * record as each batch completes, so neither the payload nor the results are held on the heap.
+ */
+@RestController
+public class BulkIngestController {
+  private static final Logger LOG = LoggerFactory.getLogger(BulkIngestController.class);
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${bulk.batch-size:500}")
+  private int batchSize;
+
+  @PostMapping(value = "/employee/_bulk",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public void createEmployees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    LOG.debug("Received bulk employee create request");
+
+    ingest(request, response, Employee.class, employeeService::createAll);
+  }
+
+  @PostMapping(value = "/compensation/_bulk",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public void createCompensations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    LOG.debug("Received bulk compensation create request");
+
+    ingest(request, response, Compensation.class, employeeService::createCompensations);
+  }
+
+  private <T> void ingest(HttpServletRequest request, HttpServletResponse response, Class<T> type,
+      Function<List<T>, List<BulkResult>> createBatch) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    ObjectWriter resultWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    // readValues iterates the elements of a top-level array as well as a plain
+    // sequence of top-level values, which covers both JSON and NDJSON payloads
+    try (MappingIterator<T> records = objectMapper.readerFor(type).readValues(request.getInputStream());
+        JsonGenerator results = objectMapper.createGenerator(response.getOutputStream())) {
+      results.setRootValueSeparator(null);
+
+      List<T> batch = new ArrayList<>(batchSize);
+      int index = 0;
+      String parseError = null;
+
+      try {
+        while (records.hasNextValue()) {
+          batch.add(records.nextValue());
+          if (batch.size() == batchSize) {
+            index = writeResults(results, resultWriter, index, createBatch.apply(batch));
+            batch.clear();
+          }
+        }
+      } catch (JsonProcessingException e) {
+        // Records parsed before the malformed one are still created
+        parseError = e.getOriginalMessage();
+      }
+
+      if (!batch.isEmpty()) {
+        index = writeResults(results, resultWriter, index, createBatch.apply(batch));
+      }
+
+      if (parseError != null) {
+        LOG.warn("Stopped bulk ingest at malformed record [{}]: {}", index, parseError);
+        writeResults(results, resultWriter, index,
+            List.of(BulkResult.failed(0, null, "Malformed record: " + parseError)));
+      }
+    }
+  }
+
+  private int writeResults(JsonGenerator generator, ObjectWriter resultWriter, int offset,
+      List<BulkResult> results) throws IOException {
+    for (BulkResult result : results) {
+      result.setIndex(offset + result.getIndex());
+      resultWriter.writeValue(generator, result);
+      generator.writeRaw('\n');
+    }
+    generator.flush();
+
+    return offset + results.size();
+  }
+}
@@ -0,0 +1,112 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.dao.ChangeLog;
+import com.mindex.challenge.data.ChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tails the {@link ChangeLog} as server-sent events, one per change with its sequence as the event id. A client
+ * resumes with {@code from}, or with the {@code Last-Event-ID} an {@code EventSource} sends when it reconnects.
+ *
+ * <p>Each subscriber is fed by its own virtual thread, which blocks while the client is slow to read. Writers
+ * never wait for it: a subscriber that falls further behind than the log holds gets a {@code reset} event with
+ * the sequence it continues from, and should reload whatever it keeps before applying further changes.
+ */
+@RestController
+public class ChangeFeedController {
+  private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedController.class);
+
+  private static final String RESET_EVENT = "reset";
+
+  @Autowired
+  private ChangeLog changeLog;
+
+  @Value("${changes.sse.batch-size:100}")
+  private int batchSize;
+
+  @Value("${changes.sse.heartbeat:15s}")
+  private Duration heartbeat;
+
+  @Value("${changes.sse.timeout:30m}")
+  private Duration timeout;
+
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter changes(@RequestParam(required = false) Long from,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+    LOG.debug("Received change feed request from [{}] after event [{}]", from, lastEventId);
+
+    // Without a position, only changes made from now on are sent
+    long fromSequence = lastEventId != null ? lastEventId + 1 : from != null ? from : changeLog.getNextSequence();
+
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    AtomicBoolean open = new AtomicBoolean(true);
+    emitter.onCompletion(() -> open.set(false));
+    emitter.onTimeout(() -> open.set(false));
+    emitter.onError(e -> open.set(false));
+
+    Thread.ofVirtual().name("change-feed").start(() -> stream(emitter, open, fromSequence));
+    return emitter;
+  }
+
+  private void stream(SseEmitter emitter, AtomicBoolean open, long fromSequence) {
+    try {
+      long sequence = fromSequence;
+
+      // Sequences start over with the process, so a position beyond the end is from before a restart
+      long nextSequence = changeLog.getNextSequence();
+      if (sequence > nextSequence) {
+        sendReset(emitter, nextSequence);
+        sequence = nextSequence;
+      }
+
+      while (open.get()) {
+        List<ChangeEvent> events = changeLog.read(sequence, batchSize, heartbeat);
+        if (events.isEmpty()) {
+          // Also finds out about clients that went away while nothing changed
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+          continue;
+        }
+
+        if (events.get(0).getSequence() > sequence) {
+          sendReset(emitter, events.get(0).getSequence());
+        }
+
+        for (ChangeEvent event : events) {
+          emitter.send(SseEmitter.event()
+              .id(Long.toString(event.getSequence()))
+              .name(event.getType().name())
+              .data(event, MediaType.APPLICATION_JSON));
+        }
+        sequence = events.get(events.size() - 1).getSequence() + 1;
+      }
+    } catch (IOException | IllegalStateException e) {
+      LOG.debug("Change feed subscriber went away", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      emitter.complete();
+    }
+  }
+
+  private void sendReset(SseEmitter emitter, long sequence) throws IOException {
+    LOG.debug("Change feed subscriber skipped ahead to sequence [{}]", sequence);
+    emitter.send(SseEmitter.event()
+        .name(RESET_EVENT)
+        .data(Collections.singletonMap("sequence", sequence), MediaType.APPLICATION_JSON));
+  }
+}
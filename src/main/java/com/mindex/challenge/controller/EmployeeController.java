@@ -1,58 +1,221 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CursorPage;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatch;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.exception.InvalidRequestException;
 import com.mindex.challenge.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 public class EmployeeController {
   private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
+  private static final String EXPAND_DIRECT_REPORTS = "directReports";
+
+  private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+  private static final String VIEW_FULL = "full";
+
+  private static final String VIEW_COUNTS = "counts";
+
   @Autowired
   private EmployeeService employeeService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ContentNegotiationManager contentNegotiationManager;
+
+  @Autowired
+  private HttpMessageConverters messageConverters;
+
+  @Value("${http.cache-control.employee:no-cache}")
+  private String employeeCacheControl;
+
+  @Value("${http.cache-control.reporting-structure:no-cache}")
+  private String reportingStructureCacheControl;
+
   @PostMapping("/employee")
   public Employee create(@RequestBody Employee employee) {
-    LOG.debug("Received employee create request for [{}]", employee);
+    LOG.debug("Received employee create request");
 
     return employeeService.create(employee);
   }
 
+  @GetMapping("/employee")
+  public CursorPage<Employee> list(@RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "100") int limit) {
+    LOG.debug("Received employee list request after [{}] with limit [{}]", after, limit);
+
+    return employeeService.list(after, limit);
+  }
+
+  @GetMapping("/employee/_search")
+  public CursorPage<Employee> search(@RequestParam String q, @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    LOG.debug("Received employee search request for [{}] from [{}] with limit [{}]", q, cursor, limit);
+
+    return employeeService.search(q, cursor, limit);
+  }
+
+  @PostMapping("/employee/_batch")
+  public EmployeeBatch readAll(@RequestBody List<String> ids) {
+    LOG.debug("Received employee batch read request for [{}] ids", ids.size());
+
+    return employeeService.readAll(ids);
+  }
+
+  @GetMapping(value = "/employee/{id}/subtree", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportSubtree(@PathVariable String id) {
+    LOG.debug("Received subtree export request for employee [{}]", id);
+
+    // Resolve the employee up front so an unknown id is still a 404 rather than an
+    // error in the middle of an already committed response
+    employeeService.read(id);
+
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+        generator.setRootValueSeparator(null);
+        employeeService.exportSubtree(id, employee -> {
+          try {
+            writer.writeValue(generator, employee);
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
   @GetMapping("/employee/{id}")
-  public Employee read(@PathVariable String id) {
-    LOG.debug("Received employee create request for id [{}]", id);
+  public ResponseEntity<Employee> read(@PathVariable String id, @RequestParam(required = false) String expand,
+      @RequestParam(defaultValue = "1") int depth, NativeWebRequest request) {
+    LOG.debug("Received employee read request for id [{}] with expand [{}]", id, expand);
 
-    return employeeService.read(id);
+    if (expand == null) {
+      // The stored version changes with every write to the document
+      Employee employee = employeeService.read(id);
+      return conditionalGet(request, employeeService.getRevision(employee).orElse(null), employeeCacheControl,
+          Employee.class, () -> employee);
+    }
+
+    if (!EXPAND_DIRECT_REPORTS.equals(expand)) {
+      throw new InvalidRequestException("Only " + EXPAND_DIRECT_REPORTS + " can be expanded");
+    }
+
+    // Expanded reports are part of the response, so it is current only as long as the whole subtree is
+    return conditionalGet(request, employeeService.getSubtreeRevision(id).orElse(null), employeeCacheControl,
+        Employee.class, () -> employeeService.readExpanded(id, depth));
   }
 
   @PutMapping("/employee/{id}")
   public Employee update(@PathVariable String id, @RequestBody Employee employee) {
-    LOG.debug("Received employee create request for id [{}] and employee [{}]", id, employee);
+    LOG.debug("Received employee update request for id [{}]", id);
 
     employee.setEmployeeId(id);
     return employeeService.update(employee);
   }
 
+  @PatchMapping(value = "/employee/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public Employee patch(@PathVariable String id, @RequestBody Map<String, Object> patch) {
+    LOG.debug("Received employee patch request for id [{}]", id);
+
+    return employeeService.patch(id, patch);
+  }
+
+  @PostMapping("/employee/{id}/direct-reports")
+  public Employee addDirectReports(@PathVariable String id, @RequestBody List<String> directReportIds) {
+    LOG.debug("Received direct reports add request for id [{}]", id);
+
+    return employeeService.addDirectReports(id, directReportIds);
+  }
+
+  @GetMapping("/employee/{id}/management-chain")
+  public List<Employee> getManagementChain(@PathVariable String id) {
+    LOG.debug("Received management chain request for employee [{}]", id);
+    return employeeService.getManagementChain(id);
+  }
+
   @GetMapping("/employee/{id}/reporting-structure")
-  public ReportingStructure getReportingStructure(@PathVariable String id) {
+  public ResponseEntity<ReportingStructure> getReportingStructure(@PathVariable String id,
+      @RequestParam(defaultValue = VIEW_FULL) String view,
+      @RequestParam(required = false) Integer maxDepth,
+      @RequestParam(defaultValue = "false") boolean byDepth, NativeWebRequest request) {
     LOG.debug("Received reporting structure request for employee [{}]", id);
-    return employeeService.getReportingStructure(id);
+
+    if (!VIEW_FULL.equals(view) && !VIEW_COUNTS.equals(view)) {
+      throw new InvalidRequestException("View must be " + VIEW_FULL + " or " + VIEW_COUNTS);
+    }
+
+    return conditionalGet(request, employeeService.getSubtreeRevision(id).orElse(null),
+        reportingStructureCacheControl, ReportingStructure.class, () -> {
+          ReportingStructure reportingStructure = employeeService.getReportingStructure(id,
+              maxDepth == null ? Integer.MAX_VALUE : maxDepth, byDepth);
+
+          // Callers that only want the numbers skip serializing the employee altogether
+          if (VIEW_COUNTS.equals(view)) {
+            reportingStructure.setEmployee(null);
+          }
+          return reportingStructure;
+        });
   }
 
   @GetMapping("/employee/{id}/compensation")
-  public Compensation getCompensation(@PathVariable String id) {
-    LOG.debug("Received compensation request for employee [{}]", id);
-    return employeeService.getCompensation(id);
+  public Compensation getCompensation(@PathVariable String id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+    LOG.debug("Received compensation request for employee [{}] as of [{}]", id, asOf);
+    return employeeService.getCompensation(id, asOf);
+  }
+
+  @GetMapping("/employee/{id}/compensation/history")
+  public CursorPage<Compensation> getCompensationHistory(@PathVariable String id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+      @RequestParam(defaultValue = "100") int limit) {
+    LOG.debug("Received compensation history request for employee [{}] before [{}] with limit [{}]", id, before,
+        limit);
+    return employeeService.getCompensationHistory(id, before, limit);
   }
 
   @PostMapping("/employee/{id}/compensation")
@@ -61,4 +224,54 @@ public class EmployeeController {
     return employeeService.createCompensation(id, compensation);
   }
 
+  /**
+   * Answers a GET with a weak ETag made from the revision and the format the body is rendered in, if there is
+   * one. A matching {@code If-None-Match} gets a 304 before the body is computed, so a poll that finds nothing new
+   * costs only the revision lookup. Weak, because Tomcat does not compress a response with a strong ETag, and the
+   * gzipped and plain bytes of a revision are not the same anyway.
+   */
+  private <T> ResponseEntity<T> conditionalGet(NativeWebRequest request, String revision, String cacheControl,
+      Class<T> type, Supplier<T> body) {
+    HttpHeaders headers = new HttpHeaders();
+    if (StringUtils.hasText(cacheControl)) {
+      headers.setCacheControl(cacheControl);
+    }
+    // JSON, Smile and CBOR renderings of one revision are different bytes, so caches must keep them apart
+    headers.setVary(List.of(HttpHeaders.ACCEPT));
+
+    MediaType format = revision == null ? null : negotiateFormat(request, type);
+    if (format != null) {
+      headers.setETag("W/\"" + revision + "-" + format.getSubtype() + "\"");
+      if (request.checkNotModified(headers.getETag())) {
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+      }
+    }
+
+    return new ResponseEntity<>(body.get(), headers, HttpStatus.OK);
+  }
+
+  /**
+   * Picks the media type the body will be written as: the first acceptable type, in order of preference, that a
+   * message converter can write the type in. Returns null when there is none, and the request ends up as a 406.
+   */
+  private MediaType negotiateFormat(NativeWebRequest request, Class<?> type) {
+    List<MediaType> acceptableTypes;
+    try {
+      acceptableTypes = contentNegotiationManager.resolveMediaTypes(request);
+    } catch (HttpMediaTypeNotAcceptableException e) {
+      return null;
+    }
+
+    for (MediaType acceptableType : acceptableTypes) {
+      for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+        for (MediaType supportedType : converter.getSupportedMediaTypes(type)) {
+          if (supportedType.isConcrete() && acceptableType.isCompatibleWith(supportedType)
+              && converter.canWrite(type, supportedType)) {
+            return supportedType;
+          }
+        }
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,27 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.PayrollSummary;
+import com.mindex.challenge.service.PayrollService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class PayrollController {
+  private static final Logger LOG = LoggerFactory.getLogger(PayrollController.class);
+
+  @Autowired
+  private PayrollService payrollService;
+
+  @GetMapping("/employee/{id}/payroll")
+  public PayrollSummary getPayrollSummary(@PathVariable String id,
+      @RequestParam(required = false) String groupBy) {
+    LOG.debug("Received payroll summary request for employee [{}] grouped by [{}]", id, groupBy);
+    return payrollService.getPayrollSummary(id, groupBy);
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link EmployeeController}. Spring MVC subscribes to the returned {@link Mono}s
+ * asynchronously, so the Tomcat worker is released while the reactive Mongo driver does the I/O.
+ */
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveEmployeeController {
+  private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+  @Autowired
+  private ReactiveEmployeeService employeeService;
+
+  @PostMapping("/employee")
+  public Mono<Employee> create(@RequestBody Employee employee) {
+    LOG.debug("Received reactive employee create request");
+
+    return employeeService.create(employee);
+  }
+
+  @GetMapping("/employee/{id}")
+  public Mono<Employee> read(@PathVariable String id) {
+    LOG.debug("Received reactive employee read request for id [{}]", id);
+
+    return employeeService.read(id);
+  }
+
+  @PutMapping("/employee/{id}")
+  public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+    LOG.debug("Received reactive employee update request for id [{}]", id);
+
+    employee.setEmployeeId(id);
+    return employeeService.update(employee);
+  }
+
+  @GetMapping("/employee/{id}/reporting-structure")
+  public Mono<ReportingStructure> getReportingStructure(@PathVariable String id) {
+    LOG.debug("Received reactive reporting structure request for employee [{}]", id);
+    return employeeService.getReportingStructure(id);
+  }
+
+  @GetMapping("/employee/{id}/compensation")
+  public Mono<Compensation> getCompensation(@PathVariable String id) {
+    LOG.debug("Received reactive compensation request for employee [{}]", id);
+    return employeeService.getCompensation(id);
+  }
+
+  @PostMapping("/employee/{id}/compensation")
+  public Mono<Compensation> createCompensation(@PathVariable String id, @RequestBody Compensation compensation) {
+    LOG.debug("Received reactive compensation create request for employee [{}]", id);
+    return employeeService.createCompensation(id, compensation);
+  }
+
+}
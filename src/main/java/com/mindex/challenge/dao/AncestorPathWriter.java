@@ -0,0 +1,80 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the materialized {@code ancestorIds} of stored employees in step with {@link OrgChartIndex}. Only the
+ * employees that moved and their transitive reports are rewritten, in unordered bulk updates, and their cached
+ * copies are dropped from {@link EmployeeCache}.
+ */
+@Component
+public class AncestorPathWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AncestorPathWriter.class);
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private EmployeeCache employeeCache;
+
+  @Value("${employee.ancestors.batch-size:1000}")
+  private int batchSize;
+
+  public void write(Collection<String> movedEmployeeIds) {
+    if (!movedEmployeeIds.isEmpty()) {
+      write(orgChartIndex.getAncestorPaths(movedEmployeeIds));
+    }
+  }
+
+  public void writeAll() {
+    Map<String, List<String>> paths = orgChartIndex.getAncestorPaths();
+    write(paths);
+    LOG.info("Wrote ancestor paths of [{}] employees", paths.size());
+  }
+
+  private void write(Map<String, List<String>> paths) {
+    List<String> batch = new ArrayList<>(Math.min(batchSize, paths.size()));
+    BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Employee.class);
+
+    for (Map.Entry<String, List<String>> path : paths.entrySet()) {
+      operations.updateOne(new Query(Criteria.where("employeeId").is(path.getKey())),
+          new Update().set("ancestorIds", path.getValue()));
+      batch.add(path.getKey());
+
+      if (batch.size() == batchSize) {
+        flush(operations, batch);
+        operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Employee.class);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      flush(operations, batch);
+    }
+  }
+
+  private void flush(BulkOperations operations, List<String> employeeIds) {
+    // Ids listed as direct reports but never created match nothing and are skipped
+    operations.execute();
+    employeeCache.invalidateAll(employeeIds);
+  }
+}
@@ -0,0 +1,101 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.data.Employee;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ordered, in-process log of the changes written through the services. Every change gets the next sequence
+ * number, starting at 1. The log is a fixed size ring: appending never waits for readers, and once it is full
+ * the oldest change is overwritten, so a reader that falls that far behind finds its next change gone.
+ *
+ * <p>Sequence numbers start over with the process, like the log itself. They order changes as they were appended,
+ * which for two concurrent writes to one employee is not necessarily the order they were stored in; employee
+ * changes carry the version written for that.
+ */
+@Component
+public class ChangeLog {
+
+  // A lock and condition rather than synchronized and wait, which would pin waiting
+  // virtual threads to their carrier
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition appended = lock.newCondition();
+
+  @Value("${changes.capacity:10000}")
+  private int capacity;
+
+  private ChangeEvent[] events;
+
+  private long nextSequence = 1;
+
+  public ChangeLog() {
+  }
+
+  ChangeLog(int capacity) {
+    this.capacity = capacity;
+    init();
+  }
+
+  @PostConstruct
+  public void init() {
+    events = new ChangeEvent[capacity];
+  }
+
+  public ChangeEvent append(ChangeEvent.Type type, String employeeId, Object data) {
+    lock.lock();
+    try {
+      Long version = data instanceof Employee employee ? employee.getVersion() : null;
+      ChangeEvent event = new ChangeEvent(nextSequence, type, employeeId, version, Instant.now(), data);
+      events[(int) (nextSequence % capacity)] = event;
+      nextSequence++;
+      appended.signalAll();
+      return event;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getNextSequence() {
+    lock.lock();
+    try {
+      return nextSequence;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns up to {@code maxEvents} changes from {@code fromSequence} on, waiting up to {@code timeout} for one
+   * if there are none yet. Changes that have already been overwritten are skipped, so the first change returned
+   * has a higher sequence than asked for when the reader fell behind.
+   */
+  public List<ChangeEvent> read(long fromSequence, int maxEvents, Duration timeout) throws InterruptedException {
+    lock.lock();
+    try {
+      long remaining = timeout.toNanos();
+      while (fromSequence >= nextSequence && remaining > 0) {
+        remaining = appended.awaitNanos(remaining);
+      }
+
+      long from = Math.max(fromSequence, Math.max(1, nextSequence - capacity));
+      long to = Math.min(nextSequence, from + maxEvents);
+      List<ChangeEvent> batch = new ArrayList<>((int) Math.max(0, to - from));
+      for (long sequence = from; sequence < to; sequence++) {
+        batch.add(events[(int) (sequence % capacity)]);
+      }
+      return batch;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
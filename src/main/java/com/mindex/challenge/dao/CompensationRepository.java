@@ -1,10 +1,24 @@
 package com.mindex.challenge.dao;
 
 import com.mindex.challenge.data.Compensation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface CompensationRepository extends MongoRepository<Compensation, String> {
-  Compensation findCompensationByEmployeeId(String employeeId);
+  // Each of these is a seek on the employeeId_effectiveDate index followed by a scan of
+  // at most the requested number of entries
+  Compensation findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
+
+  Compensation findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String employeeId,
+      LocalDate effectiveDate);
+
+  List<Compensation> findByEmployeeId(String employeeId, Pageable pageable);
+
+  List<Compensation> findByEmployeeIdAndEffectiveDateLessThan(String employeeId, LocalDate effectiveDate,
+      Pageable pageable);
 }
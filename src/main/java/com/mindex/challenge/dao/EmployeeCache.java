@@ -0,0 +1,141 @@
+package com.mindex.challenge.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindex.challenge.data.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded read-through cache of employees in front of {@link EmployeeRepository}. Writes made through the
+ * service refresh the cached entry, so readers do not see stale managers or direct reports. Hit, miss and
+ * eviction counts are published under the {@code cache.*} metrics with {@code cache=employees}.
+ */
+@Component
+public class EmployeeCache {
+
+  private static final String CACHE_NAME = "employees";
+
+  private static final int GENERATION_STRIPES = 4096;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${employee.cache.maximum-size:10000}")
+  private long maximumSize;
+
+  @Value("${employee.cache.expire-after-write:10m}")
+  private Duration expireAfterWrite;
+
+  private Cache<String, Employee> cache;
+
+  // Bumped for an id whenever its entry is written or invalidated, so a load that started before then
+  // does not cache what it read. Ids share stripes, which at worst leaves a load uncached
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  public Employee findByEmployeeId(String employeeId) {
+    Employee employee = cache.getIfPresent(employeeId);
+    if (employee != null) {
+      return employee;
+    }
+
+    // Ids that were never stored are turned away without a query
+    if (!employeeIdFilter.mightContain(employeeId)) {
+      return null;
+    }
+
+    // Load outside of the cache rather than through Cache.get, which runs the loader
+    // while holding a lock and would pin a virtual thread for the whole Mongo call.
+    // Misses are not cached, so an employee created later is still found
+    long generation = generationOf(employeeId);
+    employee = employeeRepository.findByEmployeeId(employeeId);
+    return employee == null ? null : cacheIfCurrent(employee, generation);
+  }
+
+  public List<Employee> findByEmployeeIdIn(Collection<String> employeeIds) {
+    Map<String, Employee> cached = cache.getAllPresent(employeeIds);
+    List<Employee> employees = new ArrayList<>(cached.values());
+
+    Set<String> missingIds = new HashSet<>(employeeIds);
+    missingIds.removeAll(cached.keySet());
+    missingIds.removeIf(employeeId -> !employeeIdFilter.mightContain(employeeId));
+    if (!missingIds.isEmpty()) {
+      Map<String, Long> loadGenerations = new HashMap<>();
+      for (String employeeId : missingIds) {
+        loadGenerations.put(employeeId, generationOf(employeeId));
+      }
+      for (Employee employee : employeeRepository.findByEmployeeIdIn(missingIds)) {
+        employees.add(cacheIfCurrent(employee, loadGenerations.get(employee.getEmployeeId())));
+      }
+    }
+
+    return employees;
+  }
+
+  public void put(Employee employee) {
+    generations.incrementAndGet(stripeOf(employee.getEmployeeId()));
+    cache.put(employee.getEmployeeId(), employee);
+  }
+
+  public void invalidateAll(Collection<String> employeeIds) {
+    for (String employeeId : employeeIds) {
+      generations.incrementAndGet(stripeOf(employeeId));
+    }
+    cache.invalidateAll(employeeIds);
+  }
+
+  long generationOf(String employeeId) {
+    return generations.get(stripeOf(employeeId));
+  }
+
+  /**
+   * Caches a loaded employee unless their entry was written or invalidated since the load started, in which
+   * case what was loaded may already be stale. The check and the insert happen under the entry's lock,
+   * which invalidation takes as well.
+   */
+  Employee cacheIfCurrent(Employee employee, long generation) {
+    Employee cached = cache.asMap().compute(employee.getEmployeeId(), (employeeId, existing) -> {
+      // A write that raced with this load has already put the newer document
+      if (existing != null) {
+        return existing;
+      }
+      return generationOf(employeeId) == generation ? employee : null;
+    });
+    return cached == null ? employee : cached;
+  }
+
+  private static int stripeOf(String employeeId) {
+    return Math.floorMod(employeeId.hashCode(), GENERATION_STRIPES);
+  }
+}
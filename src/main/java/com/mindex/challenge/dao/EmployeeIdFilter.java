@@ -0,0 +1,162 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of the ids of every stored employee, so lookups of ids that were never stored are answered
+ * without a query. An id the filter does not contain is definitely unknown; one it contains is looked up as
+ * usual, which for unknown ids happens at about {@code employee.id-filter.false-positive-probability}.
+ *
+ * <p>Employees are never deleted, so ids only have to be added: on every write through the services and from
+ * the store on {@link #rebuild()}. Until the first rebuild every id might be stored. Employees written to the
+ * store by anything else, such as other instances sharing an external deployment, are not seen, so the filter
+ * is off by default for {@code mongo.backend=external}.
+ */
+@Component
+public class EmployeeIdFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmployeeIdFilter.class);
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Value("${employee.id-filter.enabled:#{'${mongo.backend:memory}' != 'external'}}")
+  private boolean enabled = true;
+
+  @Value("${employee.id-filter.expected-insertions:1000000}")
+  private int expectedInsertions = 1_000_000;
+
+  @Value("${employee.id-filter.false-positive-probability:0.01}")
+  private double falsePositiveProbability = 0.01;
+
+  private volatile Bits bits;
+
+  // Filled alongside the current bits while a rebuild reads the store, so no write in between is missed
+  private Bits rebuilding;
+
+  public EmployeeIdFilter() {
+  }
+
+  EmployeeIdFilter(EmployeeRepository employeeRepository) {
+    this.employeeRepository = employeeRepository;
+  }
+
+  public boolean mightContain(String employeeId) {
+    Bits current = bits;
+    return current == null || current.mightContain(employeeId);
+  }
+
+  public void put(String employeeId) {
+    lock.lock();
+    try {
+      if (bits != null) {
+        bits.put(employeeId);
+      }
+      if (rebuilding != null) {
+        rebuilding.put(employeeId);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    // Room for the store to double before false positives become more frequent than configured
+    long size = Math.max(expectedInsertions, 2 * employeeRepository.count());
+    Bits rebuilt = new Bits(size, falsePositiveProbability);
+
+    lock.lock();
+    try {
+      rebuilding = rebuilt;
+    } finally {
+      lock.unlock();
+    }
+
+    boolean complete = false;
+    try (Stream<Employee> employees = employeeRepository.streamAllBy()) {
+      employees.forEach(employee -> rebuilt.put(employee.getEmployeeId()));
+      complete = true;
+    } finally {
+      lock.lock();
+      try {
+        if (complete) {
+          bits = rebuilt;
+        }
+        rebuilding = null;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    LOG.info("Rebuilt employee id filter of [{}] bits with [{}] hash functions for [{}] ids",
+        rebuilt.size, rebuilt.hashes, size);
+  }
+
+  /**
+   * Bit array sized for a number of ids and false positive probability. Each id sets {@code hashes} bits,
+   * all derived from a single 64-bit hash.
+   */
+  private static final class Bits {
+    private final AtomicLongArray words;
+    private final long size;
+    private final int hashes;
+
+    Bits(long ids, double falsePositiveProbability) {
+      long bits = (long) Math.ceil(-ids * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+      words = new AtomicLongArray((int) ((bits + 63) / 64));
+      size = words.length() * 64L;
+      hashes = Math.max(1, (int) Math.round((double) size / ids * Math.log(2)));
+    }
+
+    void put(String employeeId) {
+      long hash = hash(employeeId);
+      long step = (hash >>> 32) | 1;
+      for (int i = 0; i < hashes; i++) {
+        long bit = Math.floorMod(hash + i * step, size);
+        long mask = 1L << bit;
+        words.getAndAccumulate((int) (bit >>> 6), mask, (word, set) -> word | set);
+      }
+    }
+
+    boolean mightContain(String employeeId) {
+      long hash = hash(employeeId);
+      long step = (hash >>> 32) | 1;
+      for (int i = 0; i < hashes; i++) {
+        long bit = Math.floorMod(hash + i * step, size);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static long hash(String employeeId) {
+      // FNV-1a over the characters, then the MurmurHash3 finalizer to spread it over all 64 bits
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < employeeId.length(); i++) {
+        hash = (hash ^ employeeId.charAt(i)) * 0x100000001b3L;
+      }
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb9fe1a85ec53L;
+      hash ^= hash >>> 33;
+      return hash;
+    }
+  }
+}
@@ -1,10 +1,26 @@
 package com.mindex.challenge.dao;
 
 import com.mindex.challenge.data.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends MongoRepository<Employee, String> {
     Employee findByEmployeeId(String employeeId);
+
+    List<Employee> findByEmployeeIdIn(Collection<String> employeeIds);
+
+    // Only directReports, for walking the org chart without loading whole documents
+    @Query(value = "{ 'employeeId' : { '$in' : ?0 } }", fields = "{ 'directReports' : 1 }")
+    List<Employee> findDirectReportsByEmployeeIdIn(Collection<String> employeeIds);
+
+    Stream<Employee> streamAllBy();
+
+    List<Employee> findByEmployeeIdGreaterThan(String employeeId, Pageable pageable);
 }
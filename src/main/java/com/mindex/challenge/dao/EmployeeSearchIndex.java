@@ -0,0 +1,347 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead index over the names, position and department of every employee. Each word is indexed
+ * under its leading n-grams ("l", "le", "len", ...), so a query word is a single lookup rather than a scan of
+ * the vocabulary. Query words longer than the longest n-gram are looked up by that n-gram and checked against
+ * the words of each candidate.
+ *
+ * <p>Matches rank by field, last name first, and a whole word counts twice as much as its beginning. The
+ * postings of every n-gram are split into one bucket per field and kind of match, kept in rank order, and a
+ * query reads the buckets of its rarest word only until no posting left can outrank the page it returns. A
+ * single word query reads about as many postings as it returns, however many employees match.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final int LAST_NAME = 0;
+  private static final int FIRST_NAME = 1;
+  private static final int POSITION = 2;
+  private static final int DEPARTMENT = 3;
+
+  private static final int[] FIELD_WEIGHTS = {4, 3, 2, 1};
+
+  // Field and whether the whole word matched, in descending order of weight times two for a whole word
+  private static final int[][] BUCKETS = {
+      {LAST_NAME, 1}, {FIRST_NAME, 1}, {POSITION, 1}, {LAST_NAME, 0},
+      {FIRST_NAME, 0}, {DEPARTMENT, 1}, {POSITION, 0}, {DEPARTMENT, 0}
+  };
+
+  private static final int[][] BUCKET_OF_FIELD = new int[FIELD_WEIGHTS.length][2];
+
+  static {
+    for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+      BUCKET_OF_FIELD[BUCKETS[bucket][0]][BUCKETS[bucket][1]] = bucket;
+    }
+  }
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Value("${search.max-gram-length:10}")
+  private int maxGramLength = 10;
+
+  private Map<String, Integer> ordinals;
+  private List<String> employeeIds;
+  // Distinct words of each field, per ordinal
+  private List<String[][]> words;
+  private Map<String, Postings[]> postings;
+
+  public EmployeeSearchIndex() {
+    clear();
+  }
+
+  /**
+   * Returns the ids of the employees matching every word of the query, best match first, skipping the first
+   * {@code offset} matches. Equal matches keep the order they were read in.
+   */
+  public List<String> search(String query, int offset, int limit) {
+    String[] terms = wordsOf(query);
+    if (terms.length == 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      return search(terms, offset, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      clear();
+
+      try (Stream<Employee> employees = employeeRepository.streamAllBy()) {
+        employees.forEach(employee -> index(employee.getEmployeeId(), fieldWordsOf(employee)));
+      }
+
+      LOG.info("Rebuilt search index with [{}] employees and [{}] n-grams", employeeIds.size(), postings.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void update(Employee employee) {
+    String[][] fieldWords = fieldWordsOf(employee);
+
+    lock.writeLock().lock();
+    try {
+      index(employee.getEmployeeId(), fieldWords);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private List<String> search(String[] terms, int offset, int limit) {
+    // Candidates are read from the postings of the rarest word and checked against the other words
+    Postings[] rarest = null;
+    int rarestTerm = 0;
+    int rarestSize = Integer.MAX_VALUE;
+    int maxScore = 0;
+    int[] maxScores = new int[terms.length];
+    for (int term = 0; term < terms.length; term++) {
+      Postings[] buckets = postings.get(gramOf(terms[term]));
+      if (buckets == null) {
+        return List.of();
+      }
+
+      int size = 0;
+      for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+        if (buckets[bucket] != null && buckets[bucket].size > 0) {
+          size += buckets[bucket].size;
+          maxScores[term] = Math.max(maxScores[term], bucketScore(terms[term], bucket));
+        }
+      }
+      maxScore += maxScores[term];
+
+      if (size < rarestSize) {
+        rarest = buckets;
+        rarestTerm = term;
+        rarestSize = size;
+      }
+    }
+
+    // Best score a candidate not read yet can still reach, from each bucket of the rarest word on
+    int[] bounds = new int[BUCKETS.length + 1];
+    for (int bucket = BUCKETS.length - 1; bucket >= 0; bucket--) {
+      boolean empty = rarest[bucket] == null || rarest[bucket].size == 0;
+      int bound = empty ? 0 : bucketScore(terms[rarestTerm], bucket) + maxScore - maxScores[rarestTerm];
+      bounds[bucket] = Math.max(bounds[bucket + 1], bound);
+    }
+
+    // Stop reading once the page is filled with matches nothing unread can outscore
+    int wanted = offset + limit;
+    Set<Integer> seen = new HashSet<>();
+    List<int[]> hits = new ArrayList<>();
+    int[] hitsByScore = new int[maxScore + 1];
+    read:
+    for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+      int settled = 0;
+      for (int score = bounds[bucket]; score <= maxScore; score++) {
+        settled += hitsByScore[score];
+      }
+
+      Postings bucketPostings = rarest[bucket];
+      for (int i = 0; bucketPostings != null && i < bucketPostings.size; i++) {
+        if (settled >= wanted) {
+          break read;
+        }
+
+        int ordinal = bucketPostings.ordinals[i];
+        if (!seen.add(ordinal)) {
+          continue;
+        }
+
+        int score = score(words.get(ordinal), terms);
+        if (score > 0) {
+          hits.add(new int[] {ordinal, score});
+          hitsByScore[score]++;
+          if (score >= bounds[bucket]) {
+            settled++;
+          }
+        }
+      }
+    }
+
+    hits.sort(Comparator.comparingInt(hit -> -hit[1]));
+
+    List<String> page = new ArrayList<>(limit);
+    for (int i = offset; i < hits.size() && i < wanted; i++) {
+      page.add(employeeIds.get(hits.get(i)[0]));
+    }
+    return page;
+  }
+
+  private int bucketScore(String term, int bucket) {
+    // A query word longer than the longest n-gram may still be a whole word of the employee
+    boolean whole = BUCKETS[bucket][1] == 1 || term.length() > maxGramLength;
+    return FIELD_WEIGHTS[BUCKETS[bucket][0]] * (whole ? 2 : 1);
+  }
+
+  private static int score(String[][] fieldWords, String[] terms) {
+    int score = 0;
+    for (String term : terms) {
+      int termScore = score(fieldWords, term);
+      if (termScore == 0) {
+        return 0;
+      }
+      score += termScore;
+    }
+    return score;
+  }
+
+  private static int score(String[][] fieldWords, String term) {
+    int best = 0;
+    for (int field = 0; field < fieldWords.length; field++) {
+      for (String word : fieldWords[field]) {
+        if (word.equals(term)) {
+          best = Math.max(best, FIELD_WEIGHTS[field] * 2);
+        } else if (word.startsWith(term)) {
+          best = Math.max(best, FIELD_WEIGHTS[field]);
+        }
+      }
+    }
+    return best;
+  }
+
+  private void index(String employeeId, String[][] fieldWords) {
+    Integer existing = ordinals.get(employeeId);
+    int ordinal;
+    if (existing == null) {
+      ordinal = employeeIds.size();
+      ordinals.put(employeeId, ordinal);
+      employeeIds.add(employeeId);
+      words.add(null);
+    } else if (Arrays.deepEquals(words.get(existing), fieldWords)) {
+      return;
+    } else {
+      ordinal = existing;
+      for (Map.Entry<String, Integer> posting : postingsOf(words.get(ordinal)).entrySet()) {
+        Postings[] buckets = postings.get(posting.getKey());
+        for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+          if ((posting.getValue() & (1 << bucket)) != 0) {
+            buckets[bucket].remove(ordinal);
+          }
+        }
+      }
+    }
+
+    words.set(ordinal, fieldWords);
+    for (Map.Entry<String, Integer> posting : postingsOf(fieldWords).entrySet()) {
+      Postings[] buckets = postings.computeIfAbsent(posting.getKey(), gram -> new Postings[BUCKETS.length]);
+      for (int bucket = 0; bucket < BUCKETS.length; bucket++) {
+        if ((posting.getValue() & (1 << bucket)) != 0) {
+          if (buckets[bucket] == null) {
+            buckets[bucket] = new Postings();
+          }
+          buckets[bucket].add(ordinal);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the buckets each n-gram of the words goes into, as a bit mask of bucket indexes.
+   */
+  private Map<String, Integer> postingsOf(String[][] fieldWords) {
+    Map<String, Integer> buckets = new HashMap<>();
+    for (int field = 0; field < fieldWords.length; field++) {
+      for (String word : fieldWords[field]) {
+        int grams = Math.min(word.length(), maxGramLength);
+        for (int length = 1; length <= grams; length++) {
+          int bucket = BUCKET_OF_FIELD[field][length == word.length() ? 1 : 0];
+          buckets.merge(word.substring(0, length), 1 << bucket, (a, b) -> a | b);
+        }
+      }
+    }
+    return buckets;
+  }
+
+  private String gramOf(String term) {
+    return term.length() > maxGramLength ? term.substring(0, maxGramLength) : term;
+  }
+
+  private static String[][] fieldWordsOf(Employee employee) {
+    String[][] fieldWords = new String[FIELD_WEIGHTS.length][];
+    fieldWords[LAST_NAME] = wordsOf(employee.getLastName());
+    fieldWords[FIRST_NAME] = wordsOf(employee.getFirstName());
+    fieldWords[POSITION] = wordsOf(employee.getPosition());
+    fieldWords[DEPARTMENT] = wordsOf(employee.getDepartment());
+    return fieldWords;
+  }
+
+  private static String[] wordsOf(String text) {
+    if (text == null) {
+      return new String[0];
+    }
+
+    Set<String> words = new LinkedHashSet<>();
+    for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return words.toArray(new String[0]);
+  }
+
+  private void clear() {
+    ordinals = new HashMap<>();
+    employeeIds = new ArrayList<>();
+    words = new ArrayList<>();
+    postings = new HashMap<>();
+  }
+
+  /**
+   * Growable list of ordinals. Order within a bucket carries no meaning, so removal swaps in the last one.
+   */
+  private static final class Postings {
+    private int[] ordinals = new int[4];
+    private int size;
+
+    void add(int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    void remove(int ordinal) {
+      for (int i = 0; i < size; i++) {
+        if (ordinals[i] == ordinal) {
+          ordinals[i] = ordinals[--size];
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,564 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the org chart kept next to {@link EmployeeRepository}. Employee ids are interned to dense
+ * ordinals so manager and direct report links live in compact int arrays, and every node carries its
+ * precomputed number of transitive reports.
+ *
+ * <p>The chart is treated as a forest: listing an employee under a new manager moves them there, and links
+ * that would close a cycle are ignored.
+ *
+ * <p>Every node also carries the revision of the last write to it or anything below it, so callers can tell
+ * whether a subtree changed without walking it.
+ */
+@Component
+public class OrgChartIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OrgChartIndex.class);
+
+  private static final int NO_MANAGER = -1;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final int[] NO_REPORTS = new int[0];
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Revisions start over with every process, so they are only handed out prefixed with when it started
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  private Map<String, Integer> ordinals;
+  private String[] employeeIds;
+  private int[] managers;
+  private int[][] directReports;
+  private int[] directReportCounts;
+  private int[] reportCounts;
+  private long[] revisions;
+  private long revision;
+  private int size;
+
+  public OrgChartIndex() {
+    clear();
+  }
+
+  /**
+   * Returns a token that differs between processes, for prefixing anything else that starts over on a restart.
+   */
+  public String getEpoch() {
+    return epoch;
+  }
+
+  public OptionalInt getNumberOfReports(String employeeId) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      return ordinal == null ? OptionalInt.empty() : OptionalInt.of(reportCounts[ordinal]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns an opaque token that changes whenever the employee or any of their transitive reports is written
+   * or moved, including across restarts.
+   */
+  public Optional<String> getSubtreeRevision(String employeeId) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      return ordinal == null ? Optional.empty() : Optional.of(epoch + "-" + revisions[ordinal]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of reports at each level below the employee, direct reports first, for at most
+   * {@code maxDepth} levels. Only the requested levels are walked.
+   */
+  public Optional<List<Integer>> getReportsByDepth(String employeeId, int maxDepth) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      if (ordinal == null) {
+        return Optional.empty();
+      }
+
+      List<Integer> reportsByDepth = new ArrayList<>();
+      int[] level = {ordinal};
+      int levelSize = 1;
+      while (reportsByDepth.size() < maxDepth) {
+        int nextLevelSize = 0;
+        for (int i = 0; i < levelSize; i++) {
+          nextLevelSize += directReportCounts[level[i]];
+        }
+        if (nextLevelSize == 0) {
+          break;
+        }
+        reportsByDepth.add(nextLevelSize);
+
+        int[] nextLevel = new int[nextLevelSize];
+        int next = 0;
+        for (int i = 0; i < levelSize; i++) {
+          int node = level[i];
+          System.arraycopy(directReports[node], 0, nextLevel, next, directReportCounts[node]);
+          next += directReportCounts[node];
+        }
+        level = nextLevel;
+        levelSize = nextLevelSize;
+      }
+      return Optional.of(reportsByDepth);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the employee followed by all of their transitive reports, managers before their reports.
+   */
+  public Optional<List<String>> getSubtree(String employeeId) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      if (ordinal == null) {
+        return Optional.empty();
+      }
+
+      // Breadth first, so managers come before their reports; the subtree size is
+      // already known from the report count
+      List<String> subtree = new ArrayList<>(reportCounts[ordinal] + 1);
+      int[] order = new int[reportCounts[ordinal] + 1];
+      int visited = 0;
+      order[visited++] = ordinal;
+
+      for (int next = 0; next < visited; next++) {
+        int node = order[next];
+        subtree.add(employeeIds[node]);
+        for (int i = 0; i < directReportCounts[node]; i++) {
+          order[visited++] = directReports[node][i];
+        }
+      }
+      return Optional.of(subtree);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<String> getManager(String employeeId) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      return ordinal == null || managers[ordinal] == NO_MANAGER
+          ? Optional.empty()
+          : Optional.of(employeeIds[managers[ordinal]]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the direct reports listed for the employee that are currently placed under another manager,
+   * grouped by that manager. Applying the employee with {@link #update(Employee)} moves them away from it.
+   */
+  public Map<String, List<String>> getOtherManagers(Employee employee) {
+    Map<String, List<String>> otherManagers = new LinkedHashMap<>();
+    if (employee.getDirectReportIds() == null) {
+      return otherManagers;
+    }
+
+    lock.readLock().lock();
+    try {
+      for (String directReportId : employee.getDirectReportIds()) {
+        Integer report = directReportId == null ? null : ordinals.get(directReportId);
+        if (report == null || managers[report] == NO_MANAGER) {
+          continue;
+        }
+
+        String manager = employeeIds[managers[report]];
+        if (!manager.equals(employee.getEmployeeId())) {
+          otherManagers.computeIfAbsent(manager, id -> new ArrayList<>()).add(directReportId);
+        }
+      }
+      return otherManagers;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns those of the given employees that are currently direct reports of the manager.
+   */
+  public List<String> retainDirectReports(String managerId, Collection<String> employeeIds) {
+    lock.readLock().lock();
+    try {
+      Integer manager = ordinals.get(managerId);
+      List<String> directReportIds = new ArrayList<>();
+      for (String employeeId : employeeIds) {
+        Integer report = ordinals.get(employeeId);
+        if (manager != null && report != null && managers[report] == manager) {
+          directReportIds.add(employeeId);
+        }
+      }
+      return directReportIds;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the managers above the employee, starting with their direct manager.
+   */
+  public List<String> getManagementChain(String employeeId) {
+    lock.readLock().lock();
+    try {
+      Integer ordinal = ordinals.get(employeeId);
+      if (ordinal == null) {
+        return List.of();
+      }
+
+      List<String> chain = new ArrayList<>();
+      for (int manager = managers[ordinal]; manager != NO_MANAGER; manager = managers[manager]) {
+        chain.add(employeeIds[manager]);
+      }
+      return chain;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the managers above the employee, from the top of the org chart down to their direct manager.
+   */
+  public List<String> getAncestorPath(String employeeId) {
+    List<String> path = new ArrayList<>(getManagementChain(employeeId));
+    Collections.reverse(path);
+    return path;
+  }
+
+  /**
+   * Returns the ancestor path of each given employee and of all their transitive reports: the managers above
+   * them from the top of the org chart down to their direct manager. Each subtree is walked once, top down.
+   */
+  public Map<String, List<String>> getAncestorPaths(Collection<String> employeeIds) {
+    lock.readLock().lock();
+    try {
+      Map<String, List<String>> paths = new LinkedHashMap<>();
+      for (String employeeId : employeeIds) {
+        Integer ordinal = ordinals.get(employeeId);
+        if (ordinal != null && !paths.containsKey(employeeId)) {
+          appendAncestorPaths(ordinal, paths);
+        }
+      }
+      return paths;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ancestor path of every employee in the org chart.
+   */
+  public Map<String, List<String>> getAncestorPaths() {
+    lock.readLock().lock();
+    try {
+      Map<String, List<String>> paths = new LinkedHashMap<>();
+      for (int node = 0; node < size; node++) {
+        if (managers[node] == NO_MANAGER) {
+          appendAncestorPaths(node, paths);
+        }
+      }
+      return paths;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      clear();
+      // Kept increasing rather than reset, so nothing read before the rebuild looks current
+      revision++;
+
+      // Link everything first and count once at the end, so a rebuild stays linear
+      // regardless of how deep the org chart is
+      try (Stream<Employee> employees = employeeRepository.streamAllBy()) {
+        employees.forEach(employee -> {
+          int manager = ordinalOf(employee.getEmployeeId());
+          for (int report : directReportOrdinals(employee)) {
+            if (managers[report] != NO_MANAGER) {
+              unlink(report);
+            }
+            link(report, manager);
+          }
+        });
+      }
+
+      recount();
+      LOG.info("Rebuilt org chart index with [{}] employees", size);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Applies the direct reports of the employee and returns the employees that moved to or from them. Their
+   * transitive reports moved along with them.
+   */
+  public List<String> update(Employee employee) {
+    lock.writeLock().lock();
+    try {
+      int manager = ordinalOf(employee.getEmployeeId());
+      Set<Integer> reports = directReportOrdinals(employee);
+      List<String> moved = new ArrayList<>();
+
+      for (int i = directReportCounts[manager] - 1; i >= 0; i--) {
+        int report = directReports[manager][i];
+        if (!reports.contains(report)) {
+          detach(report);
+          moved.add(employeeIds[report]);
+        }
+      }
+
+      for (int report : reports) {
+        if (managers[report] == manager) {
+          continue;
+        }
+
+        if (report == manager || isAncestor(report, manager)) {
+          LOG.warn("Ignoring direct report [{}] of employee [{}] as it would create a cycle",
+              employeeIds[report], employeeIds[manager]);
+          continue;
+        }
+
+        if (managers[report] != NO_MANAGER) {
+          detach(report);
+        }
+        attach(report, manager);
+        moved.add(employeeIds[report]);
+      }
+
+      touch(manager);
+      return moved;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void clear() {
+    ordinals = new HashMap<>();
+    employeeIds = new String[INITIAL_CAPACITY];
+    managers = new int[INITIAL_CAPACITY];
+    directReports = new int[INITIAL_CAPACITY][];
+    directReportCounts = new int[INITIAL_CAPACITY];
+    reportCounts = new int[INITIAL_CAPACITY];
+    revisions = new long[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  private int ordinalOf(String employeeId) {
+    Integer ordinal = ordinals.get(employeeId);
+    if (ordinal != null) {
+      return ordinal;
+    }
+
+    if (size == employeeIds.length) {
+      int capacity = size * 2;
+      employeeIds = Arrays.copyOf(employeeIds, capacity);
+      managers = Arrays.copyOf(managers, capacity);
+      directReports = Arrays.copyOf(directReports, capacity);
+      directReportCounts = Arrays.copyOf(directReportCounts, capacity);
+      reportCounts = Arrays.copyOf(reportCounts, capacity);
+      revisions = Arrays.copyOf(revisions, capacity);
+    }
+
+    employeeIds[size] = employeeId;
+    managers[size] = NO_MANAGER;
+    directReports[size] = NO_REPORTS;
+    revisions[size] = revision;
+    ordinals.put(employeeId, size);
+    return size++;
+  }
+
+  private Set<Integer> directReportOrdinals(Employee employee) {
+    Set<Integer> reports = new LinkedHashSet<>();
+    if (employee.getDirectReportIds() != null) {
+      for (String directReportId : employee.getDirectReportIds()) {
+        if (directReportId != null) {
+          reports.add(ordinalOf(directReportId));
+        }
+      }
+    }
+    return reports;
+  }
+
+  private void appendAncestorPaths(int root, Map<String, List<String>> paths) {
+    List<String> rootPath = new ArrayList<>();
+    for (int manager = managers[root]; manager != NO_MANAGER; manager = managers[manager]) {
+      rootPath.add(employeeIds[manager]);
+    }
+    Collections.reverse(rootPath);
+    paths.put(employeeIds[root], Collections.unmodifiableList(rootPath));
+
+    // Breadth first, so every manager's path is known before their reports are reached.
+    // Reports of the same manager share a single path
+    int[] queue = new int[reportCounts[root] + 1];
+    queue[0] = root;
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int manager = queue[head];
+      if (directReportCounts[manager] == 0) {
+        continue;
+      }
+
+      List<String> reportPath = new ArrayList<>(paths.get(employeeIds[manager]));
+      reportPath.add(employeeIds[manager]);
+      reportPath = Collections.unmodifiableList(reportPath);
+      for (int i = 0; i < directReportCounts[manager]; i++) {
+        int report = directReports[manager][i];
+        paths.put(employeeIds[report], reportPath);
+        queue[tail++] = report;
+      }
+    }
+  }
+
+  private boolean isAncestor(int candidate, int node) {
+    for (int manager = managers[node]; manager != NO_MANAGER; manager = managers[manager]) {
+      if (manager == candidate) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void attach(int report, int manager) {
+    link(report, manager);
+    adjustReportCounts(manager, reportCounts[report] + 1);
+  }
+
+  private void detach(int report) {
+    int manager = managers[report];
+    unlink(report);
+    adjustReportCounts(manager, -(reportCounts[report] + 1));
+    touch(manager);
+  }
+
+  private void adjustReportCounts(int node, int delta) {
+    for (int manager = node; manager != NO_MANAGER; manager = managers[manager]) {
+      reportCounts[manager] += delta;
+    }
+  }
+
+  private void touch(int node) {
+    revision++;
+    for (int manager = node; manager != NO_MANAGER; manager = managers[manager]) {
+      revisions[manager] = revision;
+    }
+  }
+
+  private void link(int report, int manager) {
+    int count = directReportCounts[manager];
+    if (count == directReports[manager].length) {
+      directReports[manager] = Arrays.copyOf(directReports[manager], Math.max(4, count * 2));
+    }
+    directReports[manager][count] = report;
+    directReportCounts[manager] = count + 1;
+    managers[report] = manager;
+  }
+
+  private void unlink(int report) {
+    int manager = managers[report];
+    int[] reports = directReports[manager];
+    int last = directReportCounts[manager] - 1;
+    for (int i = 0; i <= last; i++) {
+      if (reports[i] == report) {
+        reports[i] = reports[last];
+        break;
+      }
+    }
+    directReportCounts[manager] = last;
+    managers[report] = NO_MANAGER;
+  }
+
+  private void recount() {
+    int[] order = new int[size];
+    boolean[] seen = new boolean[size];
+    int visited = 0;
+
+    for (int node = 0; node < size; node++) {
+      if (managers[node] == NO_MANAGER) {
+        visited = appendSubtree(node, order, visited, seen);
+      }
+    }
+
+    // Anything not reached from a top-level employee sits in a management cycle.
+    // Cut the cycle at the first repeated employee and treat it as a top-level one
+    int[] walkMarks = new int[size];
+    for (int node = 0; node < size; node++) {
+      if (seen[node]) {
+        continue;
+      }
+
+      int cycleStart = node;
+      while (walkMarks[cycleStart] != node + 1) {
+        walkMarks[cycleStart] = node + 1;
+        cycleStart = managers[cycleStart];
+      }
+
+      LOG.warn("Breaking management cycle at employee [{}]", employeeIds[cycleStart]);
+      unlink(cycleStart);
+      visited = appendSubtree(cycleStart, order, visited, seen);
+    }
+
+    // Breadth-first order lists managers before their reports, so walking it
+    // backwards rolls every subtree up into its manager exactly once
+    Arrays.fill(reportCounts, 0, size, 0);
+    for (int i = visited - 1; i >= 0; i--) {
+      int node = order[i];
+      if (managers[node] != NO_MANAGER) {
+        reportCounts[managers[node]] += reportCounts[node] + 1;
+      }
+    }
+  }
+
+  private int appendSubtree(int root, int[] order, int visited, boolean[] seen) {
+    int next = visited;
+    order[visited++] = root;
+    seen[root] = true;
+
+    while (next < visited) {
+      int node = order[next++];
+      for (int i = 0; i < directReportCounts[node]; i++) {
+        int report = directReports[node][i];
+        seen[report] = true;
+        order[visited++] = report;
+      }
+    }
+
+    return visited;
+  }
+}
@@ -0,0 +1,124 @@
+package com.mindex.challenge.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.PayrollSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Payroll summaries by the employee at the top of the summarized subtree. A write to an employee or their
+ * compensation makes the summary of every manager above them stale, so writers invalidate the whole
+ * management chain from {@link OrgChartIndex}. Metrics are published with {@code cache=payroll}.
+ */
+@Component
+public class PayrollSummaryCache {
+
+  private static final String CACHE_NAME = "payroll";
+
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${payroll.cache.maximum-size:1000}")
+  private long maximumSize;
+
+  @Value("${payroll.cache.expire-after-write:10m}")
+  private Duration expireAfterWrite;
+
+  // Bumped by every invalidation, so a summary calculated while a write was in flight is not kept
+  private final AtomicLong generation = new AtomicLong();
+
+  private Cache<String, PayrollSummary> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  public PayrollSummary get(String employeeId, boolean byDepartment, Supplier<PayrollSummary> calculator) {
+    String key = key(employeeId, byDepartment);
+    PayrollSummary summary = cache.getIfPresent(key);
+    if (summary != null) {
+      return summary;
+    }
+
+    // Calculated outside of the cache for the same reason as EmployeeCache. If anything was
+    // invalidated meanwhile the summary may already be stale, so it is dropped again; a writer
+    // that invalidates after this check removes it themselves
+    long observed = generation.get();
+    summary = calculator.get();
+    cache.put(key, summary);
+    if (generation.get() != observed) {
+      cache.invalidate(key);
+    }
+
+    return summary;
+  }
+
+  /**
+   * Invalidates the summaries affected by a write to the employee, including those above any direct
+   * report the write moves away from another manager. Called both before and after the org chart index
+   * is updated, to cover the old and the new position in the chart.
+   */
+  public void invalidate(Employee employee) {
+    Set<String> employeeIds = new HashSet<>();
+    collectChain(employee.getEmployeeId(), employeeIds);
+    if (employee.getDirectReportIds() != null) {
+      for (String directReportId : employee.getDirectReportIds()) {
+        if (directReportId != null) {
+          collectChain(directReportId, employeeIds);
+        }
+      }
+    }
+    invalidateAll(employeeIds);
+  }
+
+  public void invalidate(String employeeId) {
+    Set<String> employeeIds = new HashSet<>();
+    collectChain(employeeId, employeeIds);
+    invalidateAll(employeeIds);
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  private void collectChain(String employeeId, Set<String> employeeIds) {
+    if (employeeIds.add(employeeId)) {
+      employeeIds.addAll(orgChartIndex.getManagementChain(employeeId));
+    }
+  }
+
+  private void invalidateAll(Set<String> employeeIds) {
+    generation.incrementAndGet();
+    for (String employeeId : employeeIds) {
+      cache.invalidate(key(employeeId, false));
+      cache.invalidate(key(employeeId, true));
+    }
+  }
+
+  private static String key(String employeeId, boolean byDepartment) {
+    return byDepartment ? employeeId + "#department" : employeeId;
+  }
+}
@@ -0,0 +1,11 @@
+package com.mindex.challenge.dao.reactive;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveCompensationRepository extends ReactiveMongoRepository<Compensation, String> {
+  Mono<Compensation> findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
+}
@@ -0,0 +1,66 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+  public enum Status {
+    CREATED,
+    FAILED
+  }
+
+  private int index;
+  private String employeeId;
+  private Status status;
+  private String error;
+
+  public BulkResult() {
+  }
+
+  public BulkResult(int index, String employeeId, Status status, String error) {
+    this.index = index;
+    this.employeeId = employeeId;
+    this.status = status;
+    this.error = error;
+  }
+
+  public static BulkResult created(int index, String employeeId) {
+    return new BulkResult(index, employeeId, Status.CREATED, null);
+  }
+
+  public static BulkResult failed(int index, String employeeId, String error) {
+    return new BulkResult(index, employeeId, Status.FAILED, error);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getEmployeeId() {
+    return employeeId;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
+  public void setEmployeeId(String employeeId) {
+    this.employeeId = employeeId;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+}
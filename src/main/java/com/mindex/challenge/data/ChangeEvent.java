@@ -0,0 +1,82 @@
+package com.mindex.challenge.data;
+
+import java.time.Instant;
+
+public class ChangeEvent {
+  public enum Type {
+    EMPLOYEE_CREATED,
+    EMPLOYEE_UPDATED,
+    COMPENSATION_CREATED
+  }
+
+  // Assigned by the change log, increasing by one with every change
+  private long sequence;
+  private Type type;
+  private String employeeId;
+  // Version of the employee as written, null for compensations. Two concurrent writes to one employee can be
+  // appended the other way round from how they were stored, so this rather than the sequence orders them
+  private Long version;
+  private Instant timestamp;
+  // The employee or compensation as written
+  private Object data;
+
+  public ChangeEvent() {
+  }
+
+  public ChangeEvent(long sequence, Type type, String employeeId, Long version, Instant timestamp, Object data) {
+    this.sequence = sequence;
+    this.type = type;
+    this.employeeId = employeeId;
+    this.version = version;
+    this.timestamp = timestamp;
+    this.data = data;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getEmployeeId() {
+    return employeeId;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  public Object getData() {
+    return data;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public void setType(Type type) {
+    this.type = type;
+  }
+
+  public void setEmployeeId(String employeeId) {
+    this.employeeId = employeeId;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public void setTimestamp(Instant timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public void setData(Object data) {
+    this.data = data;
+  }
+}
@@ -1,14 +1,23 @@
 package com.mindex.challenge.data;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+@Document(collection = "compensation")
+// One compensation per employee per effective date, so the latest one on or before any
+// date is unambiguous and found by seeking this index
+@CompoundIndex(name = "employeeId_effectiveDate", def = "{'employeeId': 1, 'effectiveDate': -1}", unique = true)
 public class Compensation {
   private double salary;
-  private String effectiveDate;
+  private LocalDate effectiveDate;
   private String employeeId;
 
   public Compensation() {
   }
 
-  public Compensation(double salary, String effectiveDate, String employeeId) {
+  public Compensation(double salary, LocalDate effectiveDate, String employeeId) {
     this.salary = salary;
     this.effectiveDate = effectiveDate;
     this.employeeId = employeeId;
@@ -18,7 +27,7 @@ public class Compensation {
     return salary;
   }
 
-  public String getEffectiveDate() {
+  public LocalDate getEffectiveDate() {
     return effectiveDate;
   }
 
@@ -30,7 +39,7 @@ public class Compensation {
     this.salary = salary;
   }
 
-  public void setEffectiveDate(String effectiveDate) {
+  public void setEffectiveDate(LocalDate effectiveDate) {
     this.effectiveDate = effectiveDate;
   }
 
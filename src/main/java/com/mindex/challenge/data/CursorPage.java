@@ -0,0 +1,32 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+public class CursorPage<T> {
+  private List<T> items;
+  private String nextCursor;
+
+  public CursorPage() {
+  }
+
+  public CursorPage(List<T> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setItems(List<T> items) {
+    this.items = items;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
@@ -1,18 +1,57 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.ArrayList;
 import java.util.List;
 
+@Document(collection = "employee")
 public class Employee {
+    // Stored as _id, which gives lookups by employeeId the unique primary key index
+    @Id
     private String employeeId;
+    // Incremented by every write, so a write based on a stale copy is rejected
+    @Version
+    private Long version;
     private String firstName;
     private String lastName;
     private String position;
     private String department;
-    private List<Employee> directReports;
+
+    // Only the ids of direct reports are stored. The API still renders them as employee
+    // objects, which carry nothing but the id unless the request asked to expand them
+    @Field("directReports")
+    @JsonIgnore
+    private List<String> directReportIds;
+
+    @Transient
+    @JsonIgnore
+    private List<Employee> expandedDirectReports;
+
+    // Managers above this employee, from the top of the org chart down to their direct
+    // manager. Derived from the directReports of others, so it is never read from the API
+    @Indexed
+    @JsonIgnore
+    private List<String> ancestorIds;
 
     public Employee() {
     }
 
+    // Lets directReports be given as plain id strings as well as employee objects
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Employee reference(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+
     public String getEmployeeId() {
         return employeeId;
     }
@@ -21,6 +60,14 @@ public class Employee {
         this.employeeId = employeeId;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -53,11 +100,70 @@ public class Employee {
         this.department = department;
     }
 
+    public List<String> getDirectReportIds() {
+        return directReportIds;
+    }
+
+    public void setDirectReportIds(List<String> directReportIds) {
+        this.directReportIds = directReportIds;
+        this.expandedDirectReports = null;
+    }
+
+    public List<String> getAncestorIds() {
+        return ancestorIds;
+    }
+
+    public void setAncestorIds(List<String> ancestorIds) {
+        this.ancestorIds = ancestorIds;
+    }
+
+    @Transient
     public List<Employee> getDirectReports() {
+        if (expandedDirectReports != null) {
+            return expandedDirectReports;
+        }
+
+        if (directReportIds == null) {
+            return null;
+        }
+
+        List<Employee> directReports = new ArrayList<>(directReportIds.size());
+        for (String directReportId : directReportIds) {
+            directReports.add(reference(directReportId));
+        }
         return directReports;
     }
 
     public void setDirectReports(List<Employee> directReports) {
-        this.directReports = directReports;
+        if (directReports == null) {
+            setDirectReportIds(null);
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(directReports.size());
+        for (Employee directReport : directReports) {
+            if (directReport != null && directReport.getEmployeeId() != null) {
+                ids.add(directReport.getEmployeeId());
+            }
+        }
+        setDirectReportIds(ids);
+    }
+
+    /**
+     * Returns a copy of this employee that renders the given employees as its direct reports. Cached
+     * employees are shared between requests, so expansion never modifies them in place.
+     */
+    public Employee withExpandedDirectReports(List<Employee> directReports) {
+        Employee copy = new Employee();
+        copy.employeeId = employeeId;
+        copy.version = version;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.position = position;
+        copy.department = department;
+        copy.directReportIds = directReportIds;
+        copy.expandedDirectReports = directReports;
+        copy.ancestorIds = ancestorIds;
+        return copy;
     }
 }
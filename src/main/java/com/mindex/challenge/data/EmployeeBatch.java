@@ -0,0 +1,33 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+public class EmployeeBatch {
+  // In the order they were asked for, each at most once
+  private List<Employee> found;
+  private List<String> missing;
+
+  public EmployeeBatch() {
+  }
+
+  public EmployeeBatch(List<Employee> found, List<String> missing) {
+    this.found = found;
+    this.missing = missing;
+  }
+
+  public List<Employee> getFound() {
+    return found;
+  }
+
+  public List<String> getMissing() {
+    return missing;
+  }
+
+  public void setFound(List<Employee> found) {
+    this.found = found;
+  }
+
+  public void setMissing(List<String> missing) {
+    this.missing = missing;
+  }
+}
@@ -0,0 +1,95 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Salary statistics over a set of employees. Employees without a compensation in effect count towards
+ * {@code headcount} only, and the salary fields are absent when nobody is compensated.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollStatistics {
+  private int headcount;
+  private int compensatedHeadcount;
+  private double totalSalary;
+  private Double meanSalary;
+  private Double minSalary;
+  private Double maxSalary;
+  private Double medianSalary;
+  private Double p90Salary;
+  private Double p99Salary;
+
+  public PayrollStatistics() {
+  }
+
+  public int getHeadcount() {
+    return headcount;
+  }
+
+  public int getCompensatedHeadcount() {
+    return compensatedHeadcount;
+  }
+
+  public double getTotalSalary() {
+    return totalSalary;
+  }
+
+  public Double getMeanSalary() {
+    return meanSalary;
+  }
+
+  public Double getMinSalary() {
+    return minSalary;
+  }
+
+  public Double getMaxSalary() {
+    return maxSalary;
+  }
+
+  public Double getMedianSalary() {
+    return medianSalary;
+  }
+
+  public Double getP90Salary() {
+    return p90Salary;
+  }
+
+  public Double getP99Salary() {
+    return p99Salary;
+  }
+
+  public void setHeadcount(int headcount) {
+    this.headcount = headcount;
+  }
+
+  public void setCompensatedHeadcount(int compensatedHeadcount) {
+    this.compensatedHeadcount = compensatedHeadcount;
+  }
+
+  public void setTotalSalary(double totalSalary) {
+    this.totalSalary = totalSalary;
+  }
+
+  public void setMeanSalary(Double meanSalary) {
+    this.meanSalary = meanSalary;
+  }
+
+  public void setMinSalary(Double minSalary) {
+    this.minSalary = minSalary;
+  }
+
+  public void setMaxSalary(Double maxSalary) {
+    this.maxSalary = maxSalary;
+  }
+
+  public void setMedianSalary(Double medianSalary) {
+    this.medianSalary = medianSalary;
+  }
+
+  public void setP90Salary(Double p90Salary) {
+    this.p90Salary = p90Salary;
+  }
+
+  public void setP99Salary(Double p99Salary) {
+    this.p99Salary = p99Salary;
+  }
+}
@@ -0,0 +1,45 @@
+package com.mindex.challenge.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PayrollSummary {
+  private String employeeId;
+  private PayrollStatistics total;
+  private Map<String, PayrollStatistics> departments;
+
+  public PayrollSummary() {
+  }
+
+  public PayrollSummary(String employeeId, PayrollStatistics total, Map<String, PayrollStatistics> departments) {
+    this.employeeId = employeeId;
+    this.total = total;
+    this.departments = departments;
+  }
+
+  public String getEmployeeId() {
+    return employeeId;
+  }
+
+  public PayrollStatistics getTotal() {
+    return total;
+  }
+
+  public Map<String, PayrollStatistics> getDepartments() {
+    return departments;
+  }
+
+  public void setEmployeeId(String employeeId) {
+    this.employeeId = employeeId;
+  }
+
+  public void setTotal(PayrollStatistics total) {
+    this.total = total;
+  }
+
+  public void setDepartments(Map<String, PayrollStatistics> departments) {
+    this.departments = departments;
+  }
+}
@@ -1,8 +1,15 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ReportingStructure {
   private Employee employee;
   private int numberOfReports;
+  // Number of reports at each level below the employee, direct reports first
+  private List<Integer> reportsByDepth;
 
   public ReportingStructure() {
   }
@@ -20,6 +27,10 @@ public class ReportingStructure {
     return numberOfReports;
   }
 
+  public List<Integer> getReportsByDepth() {
+    return reportsByDepth;
+  }
+
   public void setEmployee(Employee employee) {
     this.employee = employee;
   }
@@ -28,11 +39,16 @@ public class ReportingStructure {
     this.numberOfReports = numberOfReports;
   }
 
+  public void setReportsByDepth(List<Integer> reportsByDepth) {
+    this.reportsByDepth = reportsByDepth;
+  }
+
   @Override
   public String toString() {
     return "ReportingStructure{" +
         "employee=" + employee +
         ", numberOfReports=" + numberOfReports +
+        ", reportsByDepth=" + reportsByDepth +
         '}';
   }
 }
@@ -1,10 +1,14 @@
 package com.mindex.challenge.exception;
 
+/**
+ * Thrown when an employee has no compensation, which like {@link EmployeeNotFoundException} is an expected
+ * answer, so no stack trace is captured.
+ */
 public class CompensationNotFoundException extends RuntimeException {
   private final String employeeId;
 
   public CompensationNotFoundException(String employeeId) {
-    super("Compensation not found for employee ID: " + employeeId);
+    super("Compensation not found for employee ID: " + employeeId, null, false, false);
     this.employeeId = employeeId;
   }
 
@@ -1,10 +1,14 @@
 package com.mindex.challenge.exception;
 
+/**
+ * Thrown for unknown employee ids, which are an expected answer rather than a fault, so no stack trace is
+ * captured.
+ */
 public class EmployeeNotFoundException extends RuntimeException {
   private final String employeeId;
 
   public EmployeeNotFoundException(String employeeId) {
-    super("Employee not found with ID: " + employeeId);
+    super("Employee not found with ID: " + employeeId, null, false, false);
     this.employeeId = employeeId;
   }
 
@@ -3,6 +3,9 @@ package com.mindex.challenge.exception;
 import com.mindex.challenge.data.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,15 +13,27 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+  // Unknown ids mostly come from scrapers and stale clients, so only one miss is logged per interval,
+  // along with how many were left out since the last one
+  @Value("${logging.not-found.interval:10s}")
+  private Duration notFoundLogInterval = Duration.ofSeconds(10);
+
+  private final AtomicLong nextNotFoundLog = new AtomicLong(System.nanoTime());
+
+  private final AtomicLong unloggedNotFound = new AtomicLong();
+
   @ExceptionHandler(EmployeeNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleEmployeeNotFoundException(
       EmployeeNotFoundException ex, WebRequest request) {
-    LOG.warn("Employee not found: {}", ex.getMessage());
+    logNotFound(ex.getMessage());
 
     ErrorResponse errorResponse = new ErrorResponse(
         "EMPLOYEE_NOT_FOUND",
@@ -30,7 +45,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
   @ExceptionHandler(CompensationNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleCompensationNotFoundException(
       CompensationNotFoundException ex, WebRequest request) {
-    LOG.warn("Compensation not found: {}", ex.getMessage());
+    logNotFound(ex.getMessage());
 
     ErrorResponse errorResponse = new ErrorResponse(
         "COMPENSATION_NOT_FOUND",
@@ -51,6 +66,30 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(DuplicateKeyException.class)
+  public ResponseEntity<ErrorResponse> handleDuplicateKeyException(
+      DuplicateKeyException ex, WebRequest request) {
+    LOG.warn("Duplicate key: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse(
+        "CONFLICT",
+        "A record with the same key already exists.");
+
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException ex, WebRequest request) {
+    LOG.warn("Version conflict: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse(
+        "VERSION_CONFLICT",
+        "The resource was modified by another request. Read it again and retry.");
+
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(
       Exception ex, WebRequest request) {
@@ -63,4 +102,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  private void logNotFound(String message) {
+    long now = System.nanoTime();
+    long next = nextNotFoundLog.get();
+    if (now - next < 0 || !nextNotFoundLog.compareAndSet(next, now + notFoundLogInterval.toNanos())) {
+      unloggedNotFound.incrementAndGet();
+      return;
+    }
+
+    LOG.warn("Not found: {} ([{}] more since the last one logged)", message, unloggedNotFound.getAndSet(0));
+  }
+
 }
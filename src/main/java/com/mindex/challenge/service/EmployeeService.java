@@ -1,20 +1,57 @@
 package com.mindex.challenge.service;
 
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CursorPage;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatch;
 import com.mindex.challenge.data.ReportingStructure;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
 public interface EmployeeService {
   Employee create(Employee employee);
 
   Employee read(String id);
 
+  Employee readExpanded(String id, int depth);
+
+  EmployeeBatch readAll(List<String> ids);
+
   Employee update(Employee employee);
 
+  Employee patch(String id, Map<String, Object> patch);
+
+  Employee addDirectReports(String id, List<String> directReportIds);
+
+  CursorPage<Employee> list(String after, int limit);
+
+  CursorPage<Employee> search(String query, String cursor, int limit);
+
+  void exportSubtree(String id, Consumer<Employee> consumer);
+
+  List<Employee> getManagementChain(String id);
+
   ReportingStructure getReportingStructure(String id);
 
-  Compensation getCompensation(String id);
+  ReportingStructure getReportingStructure(String id, int maxDepth, boolean byDepth);
+
+  Optional<String> getRevision(Employee employee);
+
+  Optional<String> getSubtreeRevision(String id);
+
+  Compensation getCompensation(String id, LocalDate asOf);
+
+  CursorPage<Compensation> getCompensationHistory(String id, LocalDate before, int limit);
 
   Compensation createCompensation(String id, Compensation compensation);
 
+  List<BulkResult> createAll(List<Employee> employees);
+
+  List<BulkResult> createCompensations(List<Compensation> compensations);
+
 }
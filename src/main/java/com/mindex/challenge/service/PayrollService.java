@@ -0,0 +1,8 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.PayrollSummary;
+
+public interface PayrollService {
+  PayrollSummary getPayrollSummary(String id, String groupBy);
+
+}
@@ -0,0 +1,21 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+  Mono<Employee> create(Employee employee);
+
+  Mono<Employee> read(String id);
+
+  Mono<Employee> update(Employee employee);
+
+  Mono<ReportingStructure> getReportingStructure(String id);
+
+  Mono<Compensation> getCompensation(String id);
+
+  Mono<Compensation> createCompensation(String id, Compensation compensation);
+
+}
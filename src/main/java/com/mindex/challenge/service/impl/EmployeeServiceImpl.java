@@ -1,48 +1,134 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.dao.AncestorPathWriter;
+import com.mindex.challenge.dao.ChangeLog;
 import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeCache;
+import com.mindex.challenge.dao.EmployeeIdFilter;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.EmployeeSearchIndex;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.dao.PayrollSummaryCache;
+import com.mindex.challenge.data.BulkResult;
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatch;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CursorPage;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.exception.CompensationNotFoundException;
 import com.mindex.challenge.exception.EmployeeNotFoundException;
 import com.mindex.challenge.exception.InvalidRequestException;
 import com.mindex.challenge.service.EmployeeService;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("employee.service")
 public class EmployeeServiceImpl implements EmployeeService {
 
   private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+  private static final String REPORTING_STRUCTURE_CALLS = "reporting.structure.repository.calls";
+
+  private static final Set<String> PATCHABLE_TEXT_FIELDS = Set.of("firstName", "lastName", "position", "department");
+
   @Autowired
   private EmployeeRepository employeeRepository;
 
+  @Autowired
+  private EmployeeCache employeeCache;
+
   @Autowired
   private CompensationRepository compensationRepository;
 
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Autowired
+  private AncestorPathWriter ancestorPathWriter;
+
+  @Autowired
+  private ChangeLog changeLog;
+
+  @Autowired
+  private PayrollSummaryCache payrollSummaryCache;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${employee.list.max-limit:1000}")
+  private int maxListLimit;
+
+  @Value("${employee.expand.max-depth:10}")
+  private int maxExpandDepth;
+
+  @Value("${employee.batch.max-size:500}")
+  private int maxBatchSize;
+
+  @Value("${search.max-limit:100}")
+  private int maxSearchLimit;
+
   @Override
   public Employee create(Employee employee) {
-    LOG.debug("Creating employee [{}]", employee);
-
     employee.setEmployeeId(UUID.randomUUID().toString());
+    employee.setAncestorIds(Collections.emptyList());
+    LOG.debug("Creating employee [{}]", employee.getEmployeeId());
+
     employeeRepository.insert(employee);
+    onEmployeeWritten(employee);
+    changeLog.append(ChangeEvent.Type.EMPLOYEE_CREATED, employee.getEmployeeId(), employee);
 
     return employee;
   }
 
   @Override
   public Employee read(String id) {
-    LOG.debug("Creating employee with id [{}]", id);
+    LOG.debug("Reading employee with id [{}]", id);
 
-    Employee employee = employeeRepository.findByEmployeeId(id);
+    Employee employee = employeeCache.findByEmployeeId(id);
 
     if (employee == null) {
       throw new EmployeeNotFoundException(id);
@@ -51,37 +137,337 @@ public class EmployeeServiceImpl implements EmployeeService {
     return employee;
   }
 
+  @Override
+  public Employee readExpanded(String id, int depth) {
+    LOG.debug("Reading employee with id [{}] expanded [{}] levels deep", id, depth);
+
+    if (depth < 0 || depth > maxExpandDepth) {
+      throw new InvalidRequestException("Depth must be between 0 and " + maxExpandDepth);
+    }
+
+    Employee employee = read(id);
+
+    // Resolve the reports one level at a time with a single lookup per level, then
+    // assemble expanded copies so the cached employees are left as they are
+    Map<String, Employee> resolved = new HashMap<>();
+    resolved.put(id, employee);
+    List<Employee> level = Collections.singletonList(employee);
+    for (int i = 0; i < depth && !level.isEmpty(); i++) {
+      Set<String> nextLevelIds = new HashSet<>();
+      for (Employee manager : level) {
+        if (manager.getDirectReportIds() != null) {
+          for (String directReportId : manager.getDirectReportIds()) {
+            if (!resolved.containsKey(directReportId)) {
+              nextLevelIds.add(directReportId);
+            }
+          }
+        }
+      }
+
+      level = nextLevelIds.isEmpty() ? Collections.emptyList() : employeeCache.findByEmployeeIdIn(nextLevelIds);
+      for (Employee directReport : level) {
+        resolved.put(directReport.getEmployeeId(), directReport);
+      }
+    }
+
+    return expand(employee, depth, resolved, new HashSet<>());
+  }
+
+  @Override
+  public EmployeeBatch readAll(List<String> ids) {
+    LOG.debug("Reading batch of [{}] employees", ids.size());
+
+    if (ids.isEmpty() || ids.size() > maxBatchSize) {
+      throw new InvalidRequestException("Batch must have between 1 and " + maxBatchSize + " employee ids");
+    }
+    if (ids.contains(null)) {
+      throw new InvalidRequestException("Employee ids must not be null");
+    }
+
+    // Cached employees are answered from memory and the rest with a single $in query
+    Set<String> requestedIds = new LinkedHashSet<>(ids);
+    Map<String, Employee> employees = new HashMap<>();
+    for (Employee employee : employeeCache.findByEmployeeIdIn(requestedIds)) {
+      employees.put(employee.getEmployeeId(), employee);
+    }
+
+    List<Employee> found = new ArrayList<>(employees.size());
+    List<String> missing = new ArrayList<>();
+    for (String id : requestedIds) {
+      Employee employee = employees.get(id);
+      if (employee == null) {
+        missing.add(id);
+      } else {
+        found.add(employee);
+      }
+    }
+
+    return new EmployeeBatch(found, missing);
+  }
+
   @Override
   public Employee update(Employee employee) {
-    LOG.debug("Updating employee [{}]", employee);
+    LOG.debug("Updating employee [{}]", employee.getEmployeeId());
+
+    String id = employee.getEmployeeId();
+    if (!employeeIdFilter.mightContain(id)) {
+      throw new EmployeeNotFoundException(id);
+    }
 
-    return employeeRepository.save(employee);
+    // Without a version the update applies on top of whatever is stored, as before.
+    // With one, save only matches the document at that version and fails otherwise
+    if (employee.getVersion() == null) {
+      Employee current = employeeRepository.findByEmployeeId(id);
+      if (current == null) {
+        throw new EmployeeNotFoundException(id);
+      }
+      employee.setVersion(current.getVersion());
+    }
+
+    // A saved document is replaced as a whole, so it carries its current path along
+    employee.setAncestorIds(orgChartIndex.getAncestorPath(id));
+
+    Employee updatedEmployee;
+    try {
+      updatedEmployee = employeeRepository.save(employee);
+    } catch (OptimisticLockingFailureException e) {
+      // Same as modify: a versioned save also fails for an employee that does not exist
+      if (!mongoTemplate.exists(new Query(Criteria.where("employeeId").is(id)), Employee.class)) {
+        throw new EmployeeNotFoundException(id);
+      }
+      throw e;
+    }
+    onEmployeeWritten(updatedEmployee);
+    changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED, updatedEmployee.getEmployeeId(), updatedEmployee);
+
+    return updatedEmployee;
+  }
+
+  @Override
+  public Employee patch(String id, Map<String, Object> patch) {
+    LOG.debug("Patching fields [{}] of employee [{}]", patch.keySet(), id);
+
+    // JSON Merge Patch: present values are set, nulls are removed and absent fields are
+    // left alone, so only the patched fields are written
+    Query query = new Query(Criteria.where("employeeId").is(id));
+    Update update = new Update();
+    for (Map.Entry<String, Object> field : patch.entrySet()) {
+      String name = field.getKey();
+      Object value = field.getValue();
+
+      if (PATCHABLE_TEXT_FIELDS.contains(name)) {
+        if (value == null) {
+          update.unset(name);
+        } else if (value instanceof String) {
+          update.set(name, value);
+        } else {
+          throw new InvalidRequestException(name + " must be a string");
+        }
+      } else if ("directReports".equals(name)) {
+        if (value == null) {
+          update.unset("directReportIds");
+        } else {
+          update.set("directReportIds", toDirectReportIds(value));
+        }
+      } else if ("version".equals(name)) {
+        if (!(value instanceof Number)) {
+          throw new InvalidRequestException("version must be a number");
+        }
+        query.addCriteria(Criteria.where("version").is(((Number) value).longValue()));
+      } else if ("employeeId".equals(name)) {
+        if (!id.equals(value)) {
+          throw new InvalidRequestException("employeeId cannot be changed");
+        }
+      } else {
+        throw new InvalidRequestException("Unknown employee field " + name);
+      }
+    }
+
+    return modify(id, query, update.inc("version", 1));
+  }
+
+  @Override
+  public Employee addDirectReports(String id, List<String> directReportIds) {
+    LOG.debug("Adding [{}] direct reports to employee [{}]", directReportIds.size(), id);
+
+    if (directReportIds.isEmpty() || directReportIds.contains(null)) {
+      throw new InvalidRequestException("Direct report ids must be given and not null");
+    }
+
+    // $addToSet appends only the ids not already listed, without rewriting the others
+    Update update = new Update()
+        .addToSet("directReportIds").each(directReportIds.toArray())
+        .inc("version", 1);
+    return modify(id, new Query(Criteria.where("employeeId").is(id)), update);
+  }
+
+  @Override
+  public CursorPage<Employee> list(String after, int limit) {
+    LOG.debug("Listing [{}] employees after [{}]", limit, after);
+
+    if (limit < 1 || limit > maxListLimit) {
+      throw new InvalidRequestException("Limit must be between 1 and " + maxListLimit);
+    }
+
+    // Keyset pagination: seek past the last id of the previous page instead of skipping,
+    // so every page costs the same however deep into the listing it is
+    List<Employee> employees = employeeRepository.findByEmployeeIdGreaterThan(after == null ? "" : after,
+        PageRequest.of(0, limit, Sort.by("employeeId")));
+
+    String nextCursor = employees.size() < limit ? null : employees.get(employees.size() - 1).getEmployeeId();
+    return new CursorPage<>(employees, nextCursor);
+  }
+
+  @Override
+  public CursorPage<Employee> search(String query, String cursor, int limit) {
+    LOG.debug("Searching [{}] employees matching [{}] from [{}]", limit, query, cursor);
+
+    if (query == null || query.isBlank()) {
+      throw new InvalidRequestException("Query must not be blank");
+    }
+    if (limit < 1 || limit > maxSearchLimit) {
+      throw new InvalidRequestException("Limit must be between 1 and " + maxSearchLimit);
+    }
+
+    // Matches are ranked, not ordered by a field, so the cursor is the number of matches already returned
+    int offset = 0;
+    if (cursor != null) {
+      try {
+        offset = Integer.parseInt(cursor);
+      } catch (NumberFormatException e) {
+        throw new InvalidRequestException("Invalid cursor [" + cursor + "]");
+      }
+      if (offset < 0) {
+        throw new InvalidRequestException("Invalid cursor [" + cursor + "]");
+      }
+    }
+
+    // One more than the page tells whether there is a next one
+    List<String> ids = employeeSearchIndex.search(query, offset, limit + 1);
+    boolean more = ids.size() > limit;
+    if (more) {
+      ids = ids.subList(0, limit);
+    }
+
+    Map<String, Employee> resolved = new HashMap<>();
+    for (Employee employee : employeeCache.findByEmployeeIdIn(ids)) {
+      resolved.put(employee.getEmployeeId(), employee);
+    }
+
+    List<Employee> employees = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      Employee employee = resolved.get(id);
+      if (employee != null) {
+        employees.add(employee);
+      }
+    }
+
+    return new CursorPage<>(employees, more ? String.valueOf(offset + limit) : null);
+  }
+
+  @Override
+  public void exportSubtree(String id, Consumer<Employee> consumer) {
+    LOG.debug("Exporting reporting subtree of employee [{}]", id);
+
+    // Everyone below the employee has them in their ancestor path, so the whole subtree is
+    // a single indexed query. Documents are read from a Mongo cursor and handed straight to
+    // the consumer, so nothing is kept in memory
+    Query query = new Query(new Criteria().orOperator(
+        Criteria.where("employeeId").is(id),
+        Criteria.where("ancestorIds").is(id)));
+
+    try (Stream<Employee> employees = mongoTemplate.stream(query, Employee.class)) {
+      employees.forEach(consumer);
+    }
+  }
+
+  @Override
+  public List<Employee> getManagementChain(String id) {
+    LOG.debug("Getting management chain of employee [{}]", id);
+
+    Employee employee = read(id);
+    if (employee.getAncestorIds() == null || employee.getAncestorIds().isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<String, Employee> managers = new HashMap<>();
+    for (Employee manager : employeeCache.findByEmployeeIdIn(employee.getAncestorIds())) {
+      managers.put(manager.getEmployeeId(), manager);
+    }
+
+    // Stored from the top of the org chart down, returned from the direct manager up
+    List<Employee> chain = new ArrayList<>(employee.getAncestorIds().size());
+    for (int i = employee.getAncestorIds().size() - 1; i >= 0; i--) {
+      String managerId = employee.getAncestorIds().get(i);
+      chain.add(managers.getOrDefault(managerId, Employee.reference(managerId)));
+    }
+    return chain;
   }
 
   @Override
   public ReportingStructure getReportingStructure(String id) {
-    LOG.debug("Getting reporting structure for employee [{}]", id);
+    return getReportingStructure(id, Integer.MAX_VALUE, false);
+  }
+
+  @Override
+  public ReportingStructure getReportingStructure(String id, int maxDepth, boolean byDepth) {
+    LOG.debug("Getting reporting structure for employee [{}] down to depth [{}]", id, maxDepth);
 
-    Employee employee = employeeRepository.findByEmployeeId(id);
+    if (maxDepth < 1) {
+      throw new InvalidRequestException("maxDepth must be at least 1");
+    }
+
+    Employee employee = employeeCache.findByEmployeeId(id);
     if (employee == null) {
       throw new EmployeeNotFoundException(id);
     }
 
-    int numberOfReports = calculateNumberOfReports(employee);
+    // Answer from the org chart index when it knows the employee, falling back to
+    // walking the repository for anything written outside of this service. The index
+    // keeps the total up to date; anything narrower is a walk of the index itself
+    if (maxDepth == Integer.MAX_VALUE && !byDepth) {
+      OptionalInt indexedNumberOfReports = orgChartIndex.getNumberOfReports(id);
+      if (indexedNumberOfReports.isPresent()) {
+        recordRepositoryCalls("index", 0, 0, employee);
+        return new ReportingStructure(employee, indexedNumberOfReports.getAsInt());
+      }
+    }
+
+    Optional<List<Integer>> indexedReportsByDepth = orgChartIndex.getReportsByDepth(id, maxDepth);
+    List<Integer> reportsByDepth;
+    if (indexedReportsByDepth.isPresent()) {
+      reportsByDepth = indexedReportsByDepth.get();
+      recordRepositoryCalls("index", 0, reportsByDepth.size(), employee);
+    } else {
+      reportsByDepth = calculateReportsByDepth(employee, maxDepth);
+    }
+
+    int numberOfReports = 0;
+    for (int reports : reportsByDepth) {
+      numberOfReports += reports;
+    }
 
-    return new ReportingStructure(employee, numberOfReports);
+    ReportingStructure reportingStructure = new ReportingStructure(employee, numberOfReports);
+    if (byDepth) {
+      reportingStructure.setReportsByDepth(reportsByDepth);
+    }
+    return reportingStructure;
   }
 
   @Override
-  public Compensation getCompensation(String id) {
-    LOG.debug("Getting compensation for employee [{}]", id);
+  public Compensation getCompensation(String id, LocalDate asOf) {
+    LOG.debug("Getting compensation for employee [{}] as of [{}]", id, asOf);
 
-    Employee employee = employeeRepository.findByEmployeeId(id);
+    Employee employee = employeeCache.findByEmployeeId(id);
     if (employee == null) {
       throw new EmployeeNotFoundException(id);
     }
 
-    Compensation compensation = compensationRepository.findCompensationByEmployeeId(id);
+    // The latest compensation that took effect on or before the date, or the latest
+    // of all when no date is given
+    Compensation compensation = asOf == null
+        ? compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(id)
+        : compensationRepository.findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(id, asOf);
     if (compensation == null) {
       throw new CompensationNotFoundException(id);
     }
@@ -89,6 +475,32 @@ public class EmployeeServiceImpl implements EmployeeService {
     return compensation;
   }
 
+  @Override
+  public CursorPage<Compensation> getCompensationHistory(String id, LocalDate before, int limit) {
+    LOG.debug("Getting [{}] compensations for employee [{}] before [{}]", limit, id, before);
+
+    if (limit < 1 || limit > maxListLimit) {
+      throw new InvalidRequestException("Limit must be between 1 and " + maxListLimit);
+    }
+
+    Employee employee = employeeCache.findByEmployeeId(id);
+    if (employee == null) {
+      throw new EmployeeNotFoundException(id);
+    }
+
+    // Newest first, seeking past the effective date of the previous page like list does
+    // with employee ids. Effective dates are unique per employee, so no entry is skipped
+    PageRequest page = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "effectiveDate"));
+    List<Compensation> compensations = before == null
+        ? compensationRepository.findByEmployeeId(id, page)
+        : compensationRepository.findByEmployeeIdAndEffectiveDateLessThan(id, before, page);
+
+    String nextCursor = compensations.size() < limit
+        ? null
+        : compensations.get(compensations.size() - 1).getEffectiveDate().toString();
+    return new CursorPage<>(compensations, nextCursor);
+  }
+
   @Override
   public Compensation createCompensation(String id, Compensation compensation) {
     LOG.debug("Creating compensation for employee [{}]", id);
@@ -97,36 +509,305 @@ public class EmployeeServiceImpl implements EmployeeService {
       throw new InvalidRequestException("EmployeeId in request body does not match employeeId in path");
     }
 
-    Employee employee = employeeRepository.findByEmployeeId(id);
+    Employee employee = employeeCache.findByEmployeeId(id);
     if (employee == null) {
       throw new EmployeeNotFoundException(id);
     }
 
     if (compensation.getEffectiveDate() == null) {
-      compensation.setEffectiveDate(LocalDate.now().toString());
+      compensation.setEffectiveDate(LocalDate.now());
+    }
+
+    Compensation createdCompensation = compensationRepository.insert(compensation);
+    payrollSummaryCache.invalidate(id);
+    changeLog.append(ChangeEvent.Type.COMPENSATION_CREATED, id, createdCompensation);
+
+    return createdCompensation;
+  }
+
+  @Override
+  public List<BulkResult> createAll(List<Employee> employees) {
+    LOG.debug("Creating [{}] employees", employees.size());
+
+    // Imported employees keep the id they were given so that directReports within
+    // the same payload can refer to each other
+    for (Employee employee : employees) {
+      if (employee.getEmployeeId() == null) {
+        employee.setEmployeeId(UUID.randomUUID().toString());
+      }
+      // Bulk inserts bypass the repository, which would otherwise start the version at 0
+      if (employee.getVersion() == null) {
+        employee.setVersion(0L);
+      }
+    }
+
+    Map<Integer, String> errors = insertUnordered(Employee.class, employees);
+
+    // Paths are written once for the whole batch, as employees later in it may be the
+    // managers of earlier ones
+    List<BulkResult> results = new ArrayList<>(employees.size());
+    Set<String> moved = new LinkedHashSet<>();
+    for (int i = 0; i < employees.size(); i++) {
+      Employee employee = employees.get(i);
+      if (errors.containsKey(i)) {
+        results.add(BulkResult.failed(i, employee.getEmployeeId(), errors.get(i)));
+      } else {
+        moved.addAll(onEmployeeIndexed(employee));
+        changeLog.append(ChangeEvent.Type.EMPLOYEE_CREATED, employee.getEmployeeId(), employee);
+        results.add(BulkResult.created(i, employee.getEmployeeId()));
+      }
+    }
+    ancestorPathWriter.write(moved);
+
+    return results;
+  }
+
+  @Override
+  public List<BulkResult> createCompensations(List<Compensation> compensations) {
+    LOG.debug("Creating [{}] compensations", compensations.size());
+
+    // Resolve every employee referenced by the batch with a single lookup
+    Set<String> employeeIds = new HashSet<>();
+    for (Compensation compensation : compensations) {
+      if (compensation.getEmployeeId() != null) {
+        employeeIds.add(compensation.getEmployeeId());
+      }
+    }
+
+    Set<String> knownEmployeeIds = new HashSet<>();
+    for (Employee employee : employeeCache.findByEmployeeIdIn(employeeIds)) {
+      knownEmployeeIds.add(employee.getEmployeeId());
+    }
+
+    BulkResult[] results = new BulkResult[compensations.size()];
+    List<Compensation> valid = new ArrayList<>(compensations.size());
+    List<Integer> validIndexes = new ArrayList<>(compensations.size());
+    for (int i = 0; i < compensations.size(); i++) {
+      Compensation compensation = compensations.get(i);
+      if (!knownEmployeeIds.contains(compensation.getEmployeeId())) {
+        results[i] = BulkResult.failed(i, compensation.getEmployeeId(),
+            new EmployeeNotFoundException(compensation.getEmployeeId()).getMessage());
+        continue;
+      }
+
+      if (compensation.getEffectiveDate() == null) {
+        compensation.setEffectiveDate(LocalDate.now());
+      }
+      valid.add(compensation);
+      validIndexes.add(i);
+    }
+
+    Map<Integer, String> errors = insertUnordered(Compensation.class, valid);
+    for (int i = 0; i < valid.size(); i++) {
+      int index = validIndexes.get(i);
+      if (errors.containsKey(i)) {
+        results[index] = BulkResult.failed(index, valid.get(i).getEmployeeId(), errors.get(i));
+      } else {
+        payrollSummaryCache.invalidate(valid.get(i).getEmployeeId());
+        changeLog.append(ChangeEvent.Type.COMPENSATION_CREATED, valid.get(i).getEmployeeId(), valid.get(i));
+        results[index] = BulkResult.created(index, valid.get(i).getEmployeeId());
+      }
+    }
+
+    return Arrays.asList(results);
+  }
+
+  private Map<Integer, String> insertUnordered(Class<?> type, List<?> documents) {
+    if (documents.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    // Unordered so one bad document does not stop the rest of the batch
+    try {
+      mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+          .insert(documents)
+          .execute();
+      return Collections.emptyMap();
+    } catch (BulkOperationException e) {
+      Map<Integer, String> errors = new HashMap<>();
+      for (BulkWriteError error : e.getErrors()) {
+        errors.put(error.getIndex(), error.getMessage());
+      }
+      return errors;
+    }
+  }
+
+  private Employee modify(String id, Query query, Update update) {
+    Employee modified = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+        Employee.class);
+
+    if (modified == null) {
+      // Nothing matched: either the employee does not exist or the expected version is stale
+      if (mongoTemplate.exists(new Query(Criteria.where("employeeId").is(id)), Employee.class)) {
+        throw new OptimisticLockingFailureException("Employee " + id + " was modified concurrently");
+      }
+      throw new EmployeeNotFoundException(id);
+    }
+
+    onEmployeeWritten(modified);
+    changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED, id, modified);
+    return modified;
+  }
+
+  private static List<String> toDirectReportIds(Object value) {
+    if (!(value instanceof List)) {
+      throw new InvalidRequestException("directReports must be an array");
+    }
+
+    List<String> directReportIds = new ArrayList<>();
+    for (Object directReport : (List<?>) value) {
+      Object directReportId = directReport instanceof Map ? ((Map<?, ?>) directReport).get("employeeId") : directReport;
+      if (!(directReportId instanceof String)) {
+        throw new InvalidRequestException("directReports must be employee ids or objects with an employeeId");
+      }
+      directReportIds.add((String) directReportId);
+    }
+    return directReportIds;
+  }
+
+  private void onEmployeeWritten(Employee employee) {
+    ancestorPathWriter.write(onEmployeeIndexed(employee));
+  }
+
+  private List<String> onEmployeeIndexed(Employee employee) {
+    Map<String, List<String>> previousManagers = orgChartIndex.getOtherManagers(employee);
+
+    employeeIdFilter.put(employee.getEmployeeId());
+    employeeCache.put(employee);
+    // Payroll summaries above both the old and the new position in the org chart are stale
+    payrollSummaryCache.invalidate(employee);
+    List<String> moved = orgChartIndex.update(employee);
+    payrollSummaryCache.invalidate(employee);
+    employeeSearchIndex.update(employee);
+
+    // Reports the index moved here are taken off the document of their previous manager as well, so
+    // storage keeps agreeing with the index. Links the index ignored as cycles are left alone
+    for (Map.Entry<String, List<String>> previousManager : previousManagers.entrySet()) {
+      List<String> released = orgChartIndex.retainDirectReports(employee.getEmployeeId(), previousManager.getValue());
+      if (!released.isEmpty()) {
+        moved.addAll(releaseDirectReports(previousManager.getKey(), released));
+      }
     }
+    return moved;
+  }
+
+  private List<String> releaseDirectReports(String managerId, List<String> directReportIds) {
+    LOG.debug("Moving [{}] direct reports away from employee [{}]", directReportIds.size(), managerId);
+
+    Employee manager = mongoTemplate.findAndModify(new Query(Criteria.where("employeeId").is(managerId)),
+        new Update().pullAll("directReportIds", directReportIds.toArray()).inc("version", 1),
+        FindAndModifyOptions.options().returnNew(true), Employee.class);
+    if (manager == null) {
+      return Collections.emptyList();
+    }
+
+    changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED, managerId, manager);
+    return onEmployeeIndexed(manager);
+  }
+
+  private Employee expand(Employee employee, int depth, Map<String, Employee> resolved, Set<String> expanded) {
+    // Each employee is expanded at most once, which also stops at management cycles
+    if (depth == 0 || employee.getDirectReportIds() == null || !expanded.add(employee.getEmployeeId())) {
+      return employee;
+    }
+
+    List<Employee> directReports = new ArrayList<>(employee.getDirectReportIds().size());
+    for (String directReportId : employee.getDirectReportIds()) {
+      Employee directReport = resolved.get(directReportId);
+      directReports.add(directReport == null
+          ? Employee.reference(directReportId)
+          : expand(directReport, depth - 1, resolved, expanded));
+    }
+
+    return employee.withExpandedDirectReports(directReports);
+  }
 
-    return compensationRepository.insert(compensation);
+  private void recordRepositoryCalls(String source, int repositoryCalls, int depth, Employee employee) {
+    int fanOut = employee.getDirectReportIds() == null ? 0 : employee.getDirectReportIds().size();
+
+    DistributionSummary.builder(REPORTING_STRUCTURE_CALLS)
+        .description("Repository calls made to answer a single reporting structure request")
+        .tag("source", source)
+        .tag("depth", bucket(depth))
+        .tag("fanout", bucket(fanOut))
+        .register(meterRegistry)
+        .record(repositoryCalls);
   }
 
-  private int calculateNumberOfReports(Employee employee) {
-    // If the employee has no direct reports, return 0
-    if (employee.getDirectReports() == null || employee.getDirectReports().isEmpty()) {
-      return 0;
+  private static String bucket(int value) {
+    // Powers of two keep the number of distinct tag values small: 0, 1, 2-3, 4-7, ...
+    if (value < 2) {
+      return String.valueOf(value);
     }
 
-    // Initialize the number of total reports to the number of direct reports for
-    // employee in question
-    int numberOfReports = employee.getDirectReports().size();
+    int lower = Integer.highestOneBit(value);
+    return lower >= 1024 ? "1024+" : lower + "-" + (2 * lower - 1);
+  }
 
-    // Recursively calculate the number of reports for each direct report
-    for (Employee directReport : employee.getDirectReports()) {
-      Employee fullDirectReport = employeeRepository.findByEmployeeId(directReport.getEmployeeId());
-      if (fullDirectReport != null) {
-        numberOfReports += calculateNumberOfReports(fullDirectReport);
+  @Override
+  public Optional<String> getRevision(Employee employee) {
+    // The in-memory store starts over from version 0 on a restart, so a bare version could match
+    // a tag handed out for a different document before it
+    return Optional.ofNullable(employee.getVersion()).map(version -> orgChartIndex.getEpoch() + "-" + version);
+  }
+
+  @Override
+  public Optional<String> getSubtreeRevision(String id) {
+    // Only employees written through this service are tracked by the index, so anything
+    // else has no revision rather than one that could miss a change
+    return orgChartIndex.getSubtreeRevision(id);
+  }
+
+  private List<Integer> calculateReportsByDepth(Employee employee, int maxDepth) {
+    // Every employee seen so far, including the root. Anything already in here is
+    // either a cycle or a report listed under two managers, and is counted once
+    Set<String> visited = new HashSet<>();
+    visited.add(employee.getEmployeeId());
+
+    // Walk the org chart breadth first, resolving each level with a single $in
+    // query so the number of round trips grows with depth rather than headcount.
+    // Reports that could not be resolved are still counted, matching the number of
+    // directReports listed by their manager
+    List<Integer> reportsByDepth = new ArrayList<>();
+    int repositoryCalls = 0;
+    List<Employee> level = Collections.singletonList(employee);
+    while (!level.isEmpty()) {
+      Set<String> nextLevelIds = new HashSet<>();
+      for (Employee manager : level) {
+        if (manager.getDirectReportIds() == null) {
+          continue;
+        }
+
+        for (String directReportId : manager.getDirectReportIds()) {
+          if (directReportId == null) {
+            continue;
+          }
+
+          if (!visited.add(directReportId)) {
+            LOG.warn("Skipping already counted employee [{}] under manager [{}]", directReportId,
+                manager.getEmployeeId());
+            continue;
+          }
+
+          nextLevelIds.add(directReportId);
+        }
+      }
+
+      if (nextLevelIds.isEmpty()) {
+        break;
       }
+
+      reportsByDepth.add(nextLevelIds.size());
+      // The reports of the deepest requested level are never looked at
+      if (reportsByDepth.size() == maxDepth) {
+        break;
+      }
+
+      level = employeeRepository.findDirectReportsByEmployeeIdIn(nextLevelIds);
+      repositoryCalls++;
     }
 
-    return numberOfReports;
+    recordRepositoryCalls("traversal", repositoryCalls, reportsByDepth.size(), employee);
+    return reportsByDepth;
   }
 }
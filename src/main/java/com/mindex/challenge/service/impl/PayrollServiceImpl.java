@@ -0,0 +1,186 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeCache;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.dao.PayrollSummaryCache;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.PayrollStatistics;
+import com.mindex.challenge.data.PayrollSummary;
+import com.mindex.challenge.exception.EmployeeNotFoundException;
+import com.mindex.challenge.exception.InvalidRequestException;
+import com.mindex.challenge.service.PayrollService;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Timed("payroll.service")
+public class PayrollServiceImpl implements PayrollService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PayrollServiceImpl.class);
+
+  private static final String GROUP_BY_DEPARTMENT = "department";
+
+  private static final String UNASSIGNED_DEPARTMENT = "unassigned";
+
+  @Autowired
+  private EmployeeCache employeeCache;
+
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private PayrollSummaryCache payrollSummaryCache;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Value("${payroll.batch-size:1000}")
+  private int batchSize;
+
+  @Override
+  public PayrollSummary getPayrollSummary(String id, String groupBy) {
+    LOG.debug("Getting payroll summary for employee [{}] grouped by [{}]", id, groupBy);
+
+    if (groupBy != null && !GROUP_BY_DEPARTMENT.equals(groupBy)) {
+      throw new InvalidRequestException("Payroll summaries can only be grouped by " + GROUP_BY_DEPARTMENT);
+    }
+
+    if (employeeCache.findByEmployeeId(id) == null) {
+      throw new EmployeeNotFoundException(id);
+    }
+
+    boolean byDepartment = groupBy != null;
+    return payrollSummaryCache.get(id, byDepartment, () -> calculatePayrollSummary(id, byDepartment));
+  }
+
+  private PayrollSummary calculatePayrollSummary(String id, boolean byDepartment) {
+    // Anything written outside of this service is unknown to the index and summarized on its own
+    List<String> subtree = orgChartIndex.getSubtree(id).orElseGet(() -> Collections.singletonList(id));
+
+    Map<String, Double> salaries = new HashMap<>();
+    Map<String, String> departments = new HashMap<>();
+    for (int from = 0; from < subtree.size(); from += batchSize) {
+      List<String> batch = subtree.subList(from, Math.min(from + batchSize, subtree.size()));
+      loadSalaries(batch, salaries);
+      if (byDepartment) {
+        loadDepartments(batch, departments);
+      }
+    }
+
+    // Single pass over the subtree, feeding the total and the employee's department alike
+    SalaryAccumulator total = new SalaryAccumulator(subtree.size());
+    Map<String, SalaryAccumulator> byDepartmentAccumulators = new TreeMap<>();
+    for (String employeeId : subtree) {
+      Double salary = salaries.get(employeeId);
+      total.add(salary);
+
+      if (byDepartment) {
+        String department = departments.getOrDefault(employeeId, UNASSIGNED_DEPARTMENT);
+        byDepartmentAccumulators.computeIfAbsent(department, d -> new SalaryAccumulator(16)).add(salary);
+      }
+    }
+
+    Map<String, PayrollStatistics> departmentStatistics = null;
+    if (byDepartment) {
+      departmentStatistics = new TreeMap<>();
+      for (Map.Entry<String, SalaryAccumulator> entry : byDepartmentAccumulators.entrySet()) {
+        departmentStatistics.put(entry.getKey(), entry.getValue().toStatistics());
+      }
+    }
+
+    return new PayrollSummary(id, total.toStatistics(), departmentStatistics);
+  }
+
+  private void loadSalaries(List<String> employeeIds, Map<String, Double> salaries) {
+    // The salary in effect today for each employee, in one round trip per batch: newest
+    // compensation first within each employee, then keep the first of each group
+    TypedAggregation<Compensation> aggregation = Aggregation.newAggregation(Compensation.class,
+        Aggregation.match(Criteria.where("employeeId").in(employeeIds).and("effectiveDate").lte(LocalDate.now())),
+        Aggregation.sort(Sort.by(Sort.Order.asc("employeeId"), Sort.Order.desc("effectiveDate"))),
+        Aggregation.group("employeeId").first("salary").as("salary"));
+
+    for (Document row : mongoTemplate.aggregate(aggregation, Document.class)) {
+      salaries.put(row.getString("_id"), ((Number) row.get("salary")).doubleValue());
+    }
+  }
+
+  private void loadDepartments(List<String> employeeIds, Map<String, String> departments) {
+    Query query = new Query(Criteria.where("employeeId").in(employeeIds));
+    query.fields().include("department");
+
+    for (Employee employee : mongoTemplate.find(query, Employee.class)) {
+      if (employee.getDepartment() != null) {
+        departments.put(employee.getEmployeeId(), employee.getDepartment());
+      }
+    }
+  }
+
+  private static class SalaryAccumulator {
+    private double[] salaries;
+    private int headcount;
+    private int count;
+    private double sum;
+
+    SalaryAccumulator(int expectedSize) {
+      salaries = new double[Math.max(expectedSize, 1)];
+    }
+
+    void add(Double salary) {
+      headcount++;
+      if (salary == null) {
+        return;
+      }
+
+      if (count == salaries.length) {
+        salaries = Arrays.copyOf(salaries, count * 2);
+      }
+      salaries[count++] = salary;
+      sum += salary;
+    }
+
+    PayrollStatistics toStatistics() {
+      PayrollStatistics statistics = new PayrollStatistics();
+      statistics.setHeadcount(headcount);
+      statistics.setCompensatedHeadcount(count);
+      statistics.setTotalSalary(sum);
+      if (count == 0) {
+        return statistics;
+      }
+
+      Arrays.sort(salaries, 0, count);
+      statistics.setMeanSalary(sum / count);
+      statistics.setMinSalary(salaries[0]);
+      statistics.setMaxSalary(salaries[count - 1]);
+      statistics.setMedianSalary(percentile(0.5));
+      statistics.setP90Salary(percentile(0.9));
+      statistics.setP99Salary(percentile(0.99));
+      return statistics;
+    }
+
+    private double percentile(double quantile) {
+      // Nearest rank over the sorted salaries
+      int rank = (int) Math.ceil(quantile * count);
+      return salaries[Math.max(rank, 1) - 1];
+    }
+  }
+}
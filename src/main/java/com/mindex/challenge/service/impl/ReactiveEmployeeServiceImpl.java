@@ -0,0 +1,257 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.AncestorPathWriter;
+import com.mindex.challenge.dao.ChangeLog;
+import com.mindex.challenge.dao.EmployeeCache;
+import com.mindex.challenge.dao.EmployeeIdFilter;
+import com.mindex.challenge.dao.EmployeeSearchIndex;
+import com.mindex.challenge.dao.OrgChartIndex;
+import com.mindex.challenge.dao.PayrollSummaryCache;
+import com.mindex.challenge.dao.reactive.ReactiveCompensationRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.ChangeEvent;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.exception.CompensationNotFoundException;
+import com.mindex.challenge.exception.EmployeeNotFoundException;
+import com.mindex.challenge.exception.InvalidRequestException;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+  @Autowired
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired
+  private ReactiveCompensationRepository compensationRepository;
+
+  // Writes go through the same cache and index as the blocking service so both
+  // stacks keep answering consistently
+  @Autowired
+  private EmployeeCache employeeCache;
+
+  @Autowired
+  private OrgChartIndex orgChartIndex;
+
+  @Autowired
+  private PayrollSummaryCache payrollSummaryCache;
+
+  @Autowired
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Autowired
+  private AncestorPathWriter ancestorPathWriter;
+
+  @Autowired
+  private ChangeLog changeLog;
+
+  @Autowired
+  private ReactiveMongoTemplate mongoTemplate;
+
+  @Value("${reactive.reporting-structure.batch-size:100}")
+  private int reportingStructureBatchSize;
+
+  @Value("${reactive.reporting-structure.concurrency:8}")
+  private int reportingStructureConcurrency;
+
+  @Override
+  public Mono<Employee> create(Employee employee) {
+    employee.setEmployeeId(UUID.randomUUID().toString());
+    employee.setAncestorIds(Collections.emptyList());
+    LOG.debug("Creating employee [{}]", employee.getEmployeeId());
+
+    return employeeRepository.insert(employee)
+        .flatMap(this::onEmployeeWritten)
+        .doOnNext(createdEmployee -> changeLog.append(ChangeEvent.Type.EMPLOYEE_CREATED,
+            createdEmployee.getEmployeeId(), createdEmployee));
+  }
+
+  @Override
+  public Mono<Employee> read(String id) {
+    LOG.debug("Reading employee with id [{}]", id);
+
+    return findEmployee(id);
+  }
+
+  @Override
+  public Mono<Employee> update(Employee employee) {
+    LOG.debug("Updating employee [{}]", employee.getEmployeeId());
+
+    // Same version handling as the blocking service
+    String id = employee.getEmployeeId();
+    Mono<Employee> versioned;
+    if (employee.getVersion() == null) {
+      versioned = findEmployee(id).map(current -> {
+        employee.setVersion(current.getVersion());
+        return employee;
+      });
+    } else if (employeeIdFilter.mightContain(id)) {
+      versioned = Mono.just(employee);
+    } else {
+      versioned = Mono.error(() -> new EmployeeNotFoundException(id));
+    }
+
+    return versioned
+        .doOnNext(versionedEmployee -> versionedEmployee.setAncestorIds(orgChartIndex.getAncestorPath(id)))
+        .flatMap(versionedEmployee -> employeeRepository.save(versionedEmployee)
+            .onErrorResume(OptimisticLockingFailureException.class, e -> employeeRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists ? e : new EmployeeNotFoundException(id)))))
+        .flatMap(this::onEmployeeWritten)
+        .doOnNext(updatedEmployee -> changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED,
+            updatedEmployee.getEmployeeId(), updatedEmployee));
+  }
+
+  @Override
+  public Mono<ReportingStructure> getReportingStructure(String id) {
+    LOG.debug("Getting reporting structure for employee [{}]", id);
+
+    return findEmployee(id)
+        .flatMap(employee -> {
+          OptionalInt indexedNumberOfReports = orgChartIndex.getNumberOfReports(id);
+          Mono<Integer> numberOfReports = indexedNumberOfReports.isPresent()
+              ? Mono.just(indexedNumberOfReports.getAsInt())
+              : calculateNumberOfReports(employee);
+
+          return numberOfReports.map(count -> new ReportingStructure(employee, count));
+        });
+  }
+
+  @Override
+  public Mono<Compensation> getCompensation(String id) {
+    LOG.debug("Getting compensation for employee [{}]", id);
+
+    return findEmployee(id)
+        .then(compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(id))
+        .switchIfEmpty(Mono.error(() -> new CompensationNotFoundException(id)));
+  }
+
+  @Override
+  public Mono<Compensation> createCompensation(String id, Compensation compensation) {
+    LOG.debug("Creating compensation for employee [{}]", id);
+
+    if (!compensation.getEmployeeId().equals(id)) {
+      return Mono.error(new InvalidRequestException("EmployeeId in request body does not match employeeId in path"));
+    }
+
+    if (compensation.getEffectiveDate() == null) {
+      compensation.setEffectiveDate(LocalDate.now());
+    }
+
+    return findEmployee(id)
+        .then(compensationRepository.insert(compensation))
+        .doOnNext(createdCompensation -> {
+          payrollSummaryCache.invalidate(id);
+          changeLog.append(ChangeEvent.Type.COMPENSATION_CREATED, id, createdCompensation);
+        });
+  }
+
+  private Mono<Employee> findEmployee(String id) {
+    if (!employeeIdFilter.mightContain(id)) {
+      return Mono.error(() -> new EmployeeNotFoundException(id));
+    }
+    return employeeRepository.findByEmployeeId(id)
+        .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException(id)));
+  }
+
+  private Mono<Employee> onEmployeeWritten(Employee employee) {
+    Map<String, List<String>> previousManagers = orgChartIndex.getOtherManagers(employee);
+
+    employeeIdFilter.put(employee.getEmployeeId());
+    employeeCache.put(employee);
+    payrollSummaryCache.invalidate(employee);
+    List<String> moved = orgChartIndex.update(employee);
+    payrollSummaryCache.invalidate(employee);
+    employeeSearchIndex.update(employee);
+
+    // Ancestor paths are written with the blocking template, so off the event loop
+    Mono<Void> paths = moved.isEmpty()
+        ? Mono.empty()
+        : Mono.fromRunnable(() -> ancestorPathWriter.write(moved)).subscribeOn(Schedulers.boundedElastic()).then();
+
+    // Same as the blocking service: reports moved here are taken off their previous manager's document
+    return paths
+        .thenMany(Flux.fromIterable(previousManagers.entrySet()))
+        .concatMap(previousManager -> releaseDirectReports(previousManager.getKey(),
+            orgChartIndex.retainDirectReports(employee.getEmployeeId(), previousManager.getValue())))
+        .then(Mono.just(employee));
+  }
+
+  private Mono<Employee> releaseDirectReports(String managerId, List<String> directReportIds) {
+    if (directReportIds.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return mongoTemplate.findAndModify(new Query(Criteria.where("employeeId").is(managerId)),
+            new Update().pullAll("directReportIds", directReportIds.toArray()).inc("version", 1),
+            FindAndModifyOptions.options().returnNew(true), Employee.class)
+        .doOnNext(manager -> changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED, managerId, manager))
+        .flatMap(this::onEmployeeWritten);
+  }
+
+  private Mono<Integer> calculateNumberOfReports(Employee employee) {
+    // Same breadth-first walk as the blocking service, but each level is split into
+    // batches that are queried concurrently. Levels are expanded one at a time, so
+    // the visited set is never touched by two threads at once. Deferred so every
+    // subscription, a retry included, starts from its own empty set
+    return Mono.defer(() -> {
+      Set<String> visited = new HashSet<>();
+      visited.add(employee.getEmployeeId());
+
+      return Mono.just(Collections.singletonList(employee))
+          .expand(level -> {
+            Set<String> nextLevelIds = new HashSet<>();
+            for (Employee manager : level) {
+              if (manager.getDirectReportIds() == null) {
+                continue;
+              }
+
+              for (String directReportId : manager.getDirectReportIds()) {
+                if (directReportId != null && visited.add(directReportId)) {
+                  nextLevelIds.add(directReportId);
+                }
+              }
+            }
+
+            if (nextLevelIds.isEmpty()) {
+              return Mono.empty();
+            }
+
+            return Flux.fromIterable(nextLevelIds)
+                .buffer(reportingStructureBatchSize)
+                .flatMap(employeeRepository::findDirectReportsByEmployeeIdIn, reportingStructureConcurrency)
+                .collectList();
+          })
+          .then(Mono.fromCallable(() -> visited.size() - 1));
+    });
+  }
+}
@@ -0,0 +1,34 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "bootstrap.async=true")
+public class DataBootstrapAsyncTest {
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void testLoadedAfterReady() throws Exception {
+        dataBootstrap.whenLoaded().get(30, TimeUnit.SECONDS);
+
+        Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertNotNull(employee);
+        assertEquals("Lennon", employee.getLastName());
+    }
+}
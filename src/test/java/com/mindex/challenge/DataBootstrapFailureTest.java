@@ -0,0 +1,34 @@
+package com.mindex.challenge;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"bootstrap.async=true", "bootstrap.employees=classpath:static/missing_database.json"})
+public class DataBootstrapFailureTest {
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Test
+    public void testFailureIsReported() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> dataBootstrap.whenLoaded().get(30, TimeUnit.SECONDS));
+
+        Throwable cause = e.getCause();
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause instanceof FileNotFoundException);
+    }
+}
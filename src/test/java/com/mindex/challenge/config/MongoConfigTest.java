@@ -0,0 +1,96 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class MongoConfigTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testH2StoreSurvivesRestart() throws IOException {
+        File h2File = new File(temporaryFolder.newFolder(), "challenge.mv");
+
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Persisted");
+        testEmployee.setLastName("Employee");
+        testEmployee.setDepartment("Engineering");
+        testEmployee.setPosition("Developer");
+
+        String employeeId;
+        long employeeCount;
+        try (ConfigurableApplicationContext context = start(h2File)) {
+            employeeId = context.getBean(EmployeeService.class).create(testEmployee).getEmployeeId();
+            employeeCount = context.getBean(EmployeeRepository.class).count();
+        }
+
+        // The store is already populated, so the restart must not load the snapshot into it a second time
+        try (ConfigurableApplicationContext context = start(h2File)) {
+            assertEquals(employeeCount, context.getBean(EmployeeRepository.class).count());
+            assertEquals("Persisted", context.getBean(EmployeeService.class).read(employeeId).getFirstName());
+
+            // The reactive stack reads the same database as the blocking one
+            Employee reactiveEmployee = context.getBean(ReactiveEmployeeService.class).read(employeeId).block();
+            assertNotNull(reactiveEmployee);
+            assertEquals("Persisted", reactiveEmployee.getFirstName());
+        }
+    }
+
+    @Test
+    public void testExternalStoreIsNotFiltered() {
+        // Stands in for a MongoDB deployment that other instances write to as well
+        MongoServer sharedServer = new MongoServer(new MemoryBackend());
+        sharedServer.bind();
+        InetSocketAddress address = sharedServer.getLocalAddress();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+            .run(
+                "--server.port=0",
+                "--mongo.backend=external",
+                "--mongo.uri=mongodb://" + address.getHostName() + ":" + address.getPort())) {
+            // Written by another instance after this one started, so never added to this one's id filter
+            Employee sharedEmployee = new Employee();
+            sharedEmployee.setEmployeeId(UUID.randomUUID().toString());
+            sharedEmployee.setFirstName("Shared");
+            sharedEmployee.setLastName("Employee");
+            context.getBean(EmployeeRepository.class).insert(sharedEmployee);
+
+            assertEquals("Shared",
+                context.getBean(EmployeeService.class).read(sharedEmployee.getEmployeeId()).getFirstName());
+            Employee reactiveEmployee = context.getBean(ReactiveEmployeeService.class)
+                .read(sharedEmployee.getEmployeeId()).block();
+            assertNotNull(reactiveEmployee);
+        } finally {
+            sharedServer.shutdown();
+        }
+    }
+
+    // Command line arguments, as builder properties are only defaults and lose to application.properties
+    private static ConfigurableApplicationContext start(File h2File) {
+        return new SpringApplicationBuilder(ChallengeApplication.class)
+            .run(
+                "--server.port=0",
+                "--mongo.backend=h2",
+                "--mongo.h2.file=" + h2File.getAbsolutePath(),
+                "--mongo.database=restart");
+    }
+}
@@ -0,0 +1,59 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.ChangeEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeLogTest {
+
+  private ChangeLog changeLog;
+
+  @Before
+  public void setup() {
+    changeLog = new ChangeLog(4);
+  }
+
+  @Test
+  public void testReadFromSequence() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      changeLog.append(ChangeEvent.Type.EMPLOYEE_CREATED, "employee" + i, null);
+    }
+
+    List<ChangeEvent> events = changeLog.read(2, 10, Duration.ZERO);
+    assertEquals(2, events.size());
+    assertEquals(2, events.get(0).getSequence());
+    assertEquals("employee2", events.get(1).getEmployeeId());
+
+    assertEquals(1, changeLog.read(1, 1, Duration.ZERO).size());
+    assertEquals(4, changeLog.getNextSequence());
+  }
+
+  @Test
+  public void testOverwrittenChangesAreSkipped() throws InterruptedException {
+    for (int i = 0; i < 6; i++) {
+      changeLog.append(ChangeEvent.Type.EMPLOYEE_UPDATED, "employee", null);
+    }
+
+    // Only the last 4 changes are held, so a reader at 1 continues from 3
+    List<ChangeEvent> events = changeLog.read(1, 10, Duration.ZERO);
+    assertEquals(4, events.size());
+    assertEquals(3, events.get(0).getSequence());
+  }
+
+  @Test
+  public void testReadWaitsForNextChange() throws InterruptedException {
+    assertTrue(changeLog.read(1, 10, Duration.ofMillis(10)).isEmpty());
+
+    Thread.ofVirtual().start(() -> changeLog.append(ChangeEvent.Type.COMPENSATION_CREATED, "employee", null));
+
+    List<ChangeEvent> events = changeLog.read(1, 10, Duration.ofSeconds(10));
+    assertEquals(1, events.size());
+    assertEquals(ChangeEvent.Type.COMPENSATION_CREATED, events.get(0).getType());
+  }
+}
@@ -0,0 +1,121 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EmployeeCacheTest {
+
+  @Autowired
+  private EmployeeCache employeeCache;
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  public void testReadThroughIsMeasured() {
+    Employee created = employeeService.create(employee("ReadThrough"));
+    employeeCache.invalidateAll(Collections.singletonList(created.getEmployeeId()));
+    double misses = gets("miss");
+    double hits = gets("hit");
+
+    Employee loaded = employeeCache.findByEmployeeId(created.getEmployeeId());
+    assertSame(loaded, employeeCache.findByEmployeeId(created.getEmployeeId()));
+
+    assertEquals(misses + 1, gets("miss"), 0);
+    assertEquals(hits + 1, gets("hit"), 0);
+    assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "employees").functionCounter());
+    assertNotNull(meterRegistry.find("cache.size").tag("cache", "employees").gauge());
+  }
+
+  @Test
+  public void testWritesReplaceCachedEmployee() {
+    Employee created = employeeService.create(employee("BeforeUpdate"));
+    assertEquals("BeforeUpdate", employeeCache.findByEmployeeId(created.getEmployeeId()).getLastName());
+
+    created.setLastName("AfterUpdate");
+    employeeService.update(created);
+    assertEquals("AfterUpdate", employeeCache.findByEmployeeId(created.getEmployeeId()).getLastName());
+
+    employeeService.patch(created.getEmployeeId(), Collections.singletonMap("lastName", "AfterPatch"));
+    assertEquals("AfterPatch", employeeCache.findByEmployeeId(created.getEmployeeId()).getLastName());
+  }
+
+  @Test
+  public void testInvalidationReloadsFromStore() {
+    Employee created = employeeService.create(employee("Cached"));
+    employeeCache.findByEmployeeId(created.getEmployeeId());
+
+    // Written behind the cache's back, the way ancestor paths are
+    Employee stored = employeeRepository.findByEmployeeId(created.getEmployeeId());
+    stored.setLastName("Stored");
+    employeeRepository.save(stored);
+    assertEquals("Cached", employeeCache.findByEmployeeId(created.getEmployeeId()).getLastName());
+
+    employeeCache.invalidateAll(Collections.singletonList(created.getEmployeeId()));
+    assertEquals("Stored", employeeCache.findByEmployeeId(created.getEmployeeId()).getLastName());
+  }
+
+  @Test
+  public void testLoadStartedBeforeInvalidationIsNotCached() {
+    Employee created = employeeService.create(employee("Fresh"));
+    String employeeId = created.getEmployeeId();
+
+    // A reader loaded the old document, then the entry was invalidated before it could cache it
+    long generation = employeeCache.generationOf(employeeId);
+    Employee stale = employeeRepository.findByEmployeeId(employeeId);
+    stale.setLastName("Stale");
+    employeeCache.invalidateAll(Collections.singletonList(employeeId));
+
+    assertSame(stale, employeeCache.cacheIfCurrent(stale, generation));
+    assertEquals("Fresh", employeeCache.findByEmployeeId(employeeId).getLastName());
+
+    // Without anything in between, the load is cached
+    employeeCache.invalidateAll(Collections.singletonList(employeeId));
+    Employee current = employeeRepository.findByEmployeeId(employeeId);
+    assertSame(current, employeeCache.cacheIfCurrent(current, employeeCache.generationOf(employeeId)));
+    assertSame(current, employeeCache.findByEmployeeId(employeeId));
+  }
+
+  @Test
+  public void testUnknownEmployeeIsNotCached() {
+    String employeeId = UUID.randomUUID().toString();
+    assertNull(employeeCache.findByEmployeeId(employeeId));
+    assertTrue(employeeCache.findByEmployeeIdIn(Collections.singletonList(employeeId)).isEmpty());
+  }
+
+  private double gets(String result) {
+    return meterRegistry.get("cache.gets").tag("cache", "employees").tag("result", result).functionCounter().count();
+  }
+
+  private static Employee employee(String lastName) {
+    Employee employee = new Employee();
+    employee.setFirstName("John");
+    employee.setLastName(lastName);
+    employee.setPosition("Developer");
+    employee.setDepartment("Engineering");
+    return employee;
+  }
+}
@@ -0,0 +1,97 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EmployeeIdFilterTest {
+
+  // Ids in the order they were written to the store. A rebuild streams whatever was stored when it started
+  private final List<String> store = new CopyOnWriteArrayList<>();
+
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Before
+  public void setup() {
+    EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    when(employeeRepository.count()).thenAnswer(invocation -> (long) store.size());
+    when(employeeRepository.streamAllBy()).thenAnswer(invocation -> store.stream().map(EmployeeIdFilterTest::employee));
+    employeeIdFilter = new EmployeeIdFilter(employeeRepository);
+  }
+
+  @Test
+  public void testEveryIdMightBeStoredBeforeFirstRebuild() {
+    assertTrue(employeeIdFilter.mightContain("never-stored"));
+
+    write("stored");
+    assertTrue(employeeIdFilter.mightContain("stored"));
+    assertTrue(employeeIdFilter.mightContain("never-stored"));
+  }
+
+  @Test
+  public void testUnknownIdsAreMostlyFiltered() {
+    for (int i = 0; i < 10_000; i++) {
+      write("stored-" + i);
+    }
+    employeeIdFilter.rebuild();
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(employeeIdFilter.mightContain("stored-" + i));
+      if (employeeIdFilter.mightContain("unknown-" + i)) {
+        falsePositives++;
+      }
+    }
+    // Configured for 1%, with the filter sized for far more ids than were stored
+    assertTrue(falsePositives < 100);
+  }
+
+  @Test
+  public void testWritesRacingRebuildsAreNeverMissed() throws InterruptedException {
+    write("stored-first");
+    employeeIdFilter.rebuild();
+
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread rebuilder = Thread.ofPlatform().start(() -> {
+      while (writing.get()) {
+        employeeIdFilter.rebuild();
+      }
+    });
+
+    // Every id has to be found from the moment its write returns, whichever step of a rebuild it landed in
+    try {
+      for (int i = 0; i < 20_000; i++) {
+        String employeeId = "written-" + i;
+        write(employeeId);
+        assertTrue(employeeId, employeeIdFilter.mightContain(employeeId));
+      }
+    } finally {
+      writing.set(false);
+      rebuilder.join();
+    }
+
+    for (String employeeId : store) {
+      assertTrue(employeeId, employeeIdFilter.mightContain(employeeId));
+    }
+  }
+
+  // Like the services: stored first, then added to the filter
+  private void write(String employeeId) {
+    store.add(employeeId);
+    employeeIdFilter.put(employeeId);
+  }
+
+  private static Employee employee(String employeeId) {
+    Employee employee = new Employee();
+    employee.setEmployeeId(employeeId);
+    return employee;
+  }
+}
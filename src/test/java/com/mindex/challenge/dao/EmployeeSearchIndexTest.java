@@ -0,0 +1,84 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EmployeeSearchIndexTest {
+
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Before
+  public void setup() {
+    employeeSearchIndex = new EmployeeSearchIndex();
+    employeeSearchIndex.update(employee("john", "John", "Lennon", "Development Manager", "Engineering"));
+    employeeSearchIndex.update(employee("paul", "Paul", "McCartney", "Developer I", "Engineering"));
+    employeeSearchIndex.update(employee("pete", "Pete", "Best", "Developer II", "Engineering"));
+    employeeSearchIndex.update(employee("julian", "Julian", "Lennon", "Developer II", "Sales"));
+    employeeSearchIndex.update(employee("lenny", "Lenny", "Kravitz", "Developer I", "Sales"));
+  }
+
+  @Test
+  public void testPrefixesMatchAnyField() {
+    assertEquals(Arrays.asList("john", "julian"), employeeSearchIndex.search("LENNON", 0, 10));
+    assertEquals(Arrays.asList("julian", "lenny"), employeeSearchIndex.search("sal", 0, 10));
+    assertTrue(employeeSearchIndex.search("ringo", 0, 10).isEmpty());
+    assertTrue(employeeSearchIndex.search("!!", 0, 10).isEmpty());
+  }
+
+  @Test
+  public void testRanking() {
+    // Last names rank above first names, and a whole word above its beginning
+    assertEquals(Arrays.asList("john", "julian", "lenny"), employeeSearchIndex.search("len", 0, 10));
+    assertEquals("john", employeeSearchIndex.search("development", 0, 10).get(0));
+  }
+
+  @Test
+  public void testEveryWordMustMatch() {
+    assertEquals(Arrays.asList("pete", "julian"), employeeSearchIndex.search("developer ii", 0, 10));
+    assertEquals(Arrays.asList("julian"), employeeSearchIndex.search("developer ii sales", 0, 10));
+    assertTrue(employeeSearchIndex.search("lennon paul", 0, 10).isEmpty());
+  }
+
+  @Test
+  public void testPagination() {
+    assertEquals(Arrays.asList("john", "paul"), employeeSearchIndex.search("dev", 0, 2));
+    assertEquals(Arrays.asList("pete", "julian"), employeeSearchIndex.search("dev", 2, 2));
+    // Whole words rank first, then equal matches keep the order they were indexed in
+    assertEquals(Arrays.asList("lenny", "pete"), employeeSearchIndex.search("developer i", 1, 2));
+  }
+
+  @Test
+  public void testUpdateReplacesWords() {
+    employeeSearchIndex.update(employee("lenny", "Lenny", "Kravitz", "Development Manager", "Sales"));
+
+    assertEquals(Arrays.asList("john", "lenny"), employeeSearchIndex.search("manager", 0, 10));
+    assertEquals(Arrays.asList("paul"), employeeSearchIndex.search("developer i", 0, 10).subList(0, 1));
+    assertTrue(employeeSearchIndex.search("kravitz developer", 0, 10).isEmpty());
+  }
+
+  @Test
+  public void testWordsLongerThanTheLongestGram() {
+    employeeSearchIndex.update(employee("stu", "Stuart", "Sutcliffe-Administrator", "Administrative", "Sales"));
+    employeeSearchIndex.update(employee("neil", "Neil", "Aspinall", "Administrator", "Operations"));
+
+    assertEquals(Arrays.asList("stu", "neil"), employeeSearchIndex.search("administrator", 0, 10));
+    assertEquals(Arrays.asList("stu"), employeeSearchIndex.search("administrati", 0, 10));
+  }
+
+  private static Employee employee(String employeeId, String firstName, String lastName, String position,
+      String department) {
+    Employee employee = new Employee();
+    employee.setEmployeeId(employeeId);
+    employee.setFirstName(firstName);
+    employee.setLastName(lastName);
+    employee.setPosition(position);
+    employee.setDepartment(department);
+    return employee;
+  }
+}
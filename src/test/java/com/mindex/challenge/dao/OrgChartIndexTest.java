@@ -0,0 +1,161 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrgChartIndexTest {
+
+  private OrgChartIndex orgChartIndex;
+
+  @Before
+  public void setup() {
+    orgChartIndex = new OrgChartIndex();
+  }
+
+  @Test
+  public void testCountsPropagateToAncestors() {
+    orgChartIndex.update(employee("ceo", "vp"));
+    orgChartIndex.update(employee("vp", "manager"));
+    orgChartIndex.update(employee("manager", "dev1", "dev2"));
+
+    assertEquals(4, orgChartIndex.getNumberOfReports("ceo").getAsInt());
+    assertEquals(3, orgChartIndex.getNumberOfReports("vp").getAsInt());
+    assertEquals(2, orgChartIndex.getNumberOfReports("manager").getAsInt());
+    assertEquals(0, orgChartIndex.getNumberOfReports("dev1").getAsInt());
+  }
+
+  @Test
+  public void testReparentingMovesSubtree() {
+    orgChartIndex.update(employee("ceo", "vp1", "vp2"));
+    orgChartIndex.update(employee("vp1", "manager"));
+    orgChartIndex.update(employee("manager", "dev1", "dev2"));
+
+    // Moving the manager under vp2 takes their reports along
+    orgChartIndex.update(employee("vp2", "manager"));
+
+    assertEquals(5, orgChartIndex.getNumberOfReports("ceo").getAsInt());
+    assertEquals(0, orgChartIndex.getNumberOfReports("vp1").getAsInt());
+    assertEquals(3, orgChartIndex.getNumberOfReports("vp2").getAsInt());
+
+    // Dropping a report removes their whole subtree from the counts
+    orgChartIndex.update(employee("vp2"));
+
+    assertEquals(2, orgChartIndex.getNumberOfReports("ceo").getAsInt());
+    assertEquals(2, orgChartIndex.getNumberOfReports("manager").getAsInt());
+  }
+
+  @Test
+  public void testCyclesAreIgnored() {
+    orgChartIndex.update(employee("manager", "dev"));
+    orgChartIndex.update(employee("dev", "manager"));
+
+    assertEquals(1, orgChartIndex.getNumberOfReports("manager").getAsInt());
+    assertEquals(0, orgChartIndex.getNumberOfReports("dev").getAsInt());
+  }
+
+  @Test
+  public void testSubtreeAndManagementChain() {
+    orgChartIndex.update(employee("ceo", "vp"));
+    orgChartIndex.update(employee("vp", "dev1", "dev2"));
+
+    assertEquals(Arrays.asList("vp", "dev1", "dev2"), orgChartIndex.getSubtree("vp").get());
+    assertEquals(Arrays.asList("vp", "ceo"), orgChartIndex.getManagementChain("dev2"));
+    assertTrue(orgChartIndex.getManagementChain("ceo").isEmpty());
+  }
+
+  @Test
+  public void testReportsByDepth() {
+    orgChartIndex.update(employee("ceo", "vp1", "vp2"));
+    orgChartIndex.update(employee("vp1", "dev1", "dev2"));
+    orgChartIndex.update(employee("vp2", "dev3"));
+    orgChartIndex.update(employee("dev3", "intern"));
+
+    assertEquals(Arrays.asList(2, 3, 1), orgChartIndex.getReportsByDepth("ceo", Integer.MAX_VALUE).get());
+    assertEquals(Arrays.asList(2, 3), orgChartIndex.getReportsByDepth("ceo", 2).get());
+    assertTrue(orgChartIndex.getReportsByDepth("dev1", 5).get().isEmpty());
+    assertFalse(orgChartIndex.getReportsByDepth("unknown", 1).isPresent());
+  }
+
+  @Test
+  public void testSubtreeRevisionFollowsWritesBelow() {
+    orgChartIndex.update(employee("ceo", "vp1", "vp2"));
+    orgChartIndex.update(employee("vp1", "dev"));
+
+    String ceo = orgChartIndex.getSubtreeRevision("ceo").get();
+    String vp2 = orgChartIndex.getSubtreeRevision("vp2").get();
+
+    orgChartIndex.update(employee("dev"));
+    assertNotEquals(ceo, orgChartIndex.getSubtreeRevision("ceo").get());
+    assertEquals(vp2, orgChartIndex.getSubtreeRevision("vp2").get());
+
+    // Moving a report away changes the subtree they left as well as the one they joined
+    String vp1 = orgChartIndex.getSubtreeRevision("vp1").get();
+    orgChartIndex.update(employee("vp2", "dev"));
+    assertNotEquals(vp1, orgChartIndex.getSubtreeRevision("vp1").get());
+    assertNotEquals(vp2, orgChartIndex.getSubtreeRevision("vp2").get());
+  }
+
+  @Test
+  public void testAncestorPathsFollowReparenting() {
+    orgChartIndex.update(employee("ceo", "vp1", "vp2"));
+    orgChartIndex.update(employee("vp1", "manager"));
+    orgChartIndex.update(employee("manager", "dev"));
+
+    assertEquals(Arrays.asList("ceo", "vp1", "manager"), orgChartIndex.getAncestorPath("dev"));
+
+    // The manager moved; their report's path is returned along with theirs
+    assertEquals(Arrays.asList("manager"), orgChartIndex.update(employee("vp2", "manager")));
+    Map<String, List<String>> paths = orgChartIndex.getAncestorPaths(Arrays.asList("manager"));
+    assertEquals(Arrays.asList("ceo", "vp2"), paths.get("manager"));
+    assertEquals(Arrays.asList("ceo", "vp2", "manager"), paths.get("dev"));
+    assertEquals(5, orgChartIndex.getAncestorPaths().size());
+  }
+
+  @Test
+  public void testOtherManagersOfListedReports() {
+    orgChartIndex.update(employee("vp1", "dev1", "dev2"));
+    orgChartIndex.update(employee("vp2", "dev3"));
+
+    Employee vp2 = employee("vp2", "dev1", "dev3", "new");
+    assertEquals(Map.of("vp1", Arrays.asList("dev1")), orgChartIndex.getOtherManagers(vp2));
+
+    orgChartIndex.update(vp2);
+    assertEquals(Arrays.asList("dev1", "dev3"),
+        orgChartIndex.retainDirectReports("vp2", Arrays.asList("dev1", "dev2", "dev3")));
+    assertEquals("vp2", orgChartIndex.getManager("dev1").get());
+    assertFalse(orgChartIndex.getManager("vp2").isPresent());
+  }
+
+  @Test
+  public void testUnknownEmployee() {
+    assertFalse(orgChartIndex.getNumberOfReports("unknown").isPresent());
+    assertFalse(orgChartIndex.getSubtree("unknown").isPresent());
+    assertFalse(orgChartIndex.getSubtreeRevision("unknown").isPresent());
+  }
+
+  private static Employee employee(String employeeId, String... directReportIds) {
+    Employee employee = new Employee();
+    employee.setEmployeeId(employeeId);
+
+    List<Employee> directReports = new ArrayList<>();
+    for (String directReportId : directReportIds) {
+      Employee directReport = new Employee();
+      directReport.setEmployeeId(directReportId);
+      directReports.add(directReport);
+    }
+    employee.setDirectReports(directReports);
+
+    return employee;
+  }
+}
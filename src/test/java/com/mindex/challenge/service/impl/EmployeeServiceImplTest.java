@@ -1,13 +1,20 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.data.ChangeEvent;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CursorPage;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeBatch;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.exception.CompensationNotFoundException;
 import com.mindex.challenge.exception.EmployeeNotFoundException;
 import com.mindex.challenge.exception.InvalidRequestException;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.dao.ChangeLog;
 import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeIdFilter;
+import com.mindex.challenge.dao.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -16,17 +23,44 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -36,6 +70,9 @@ public class EmployeeServiceImplTest {
   private String employeeIdUrl;
   private String employeeIdReportingStructureUrl;
   private String employeeIdCompensationUrl;
+  private String employeeIdSubtreeUrl;
+  private String bulkEmployeeUrl;
+  private String bulkCompensationUrl;
 
   @Autowired
   private EmployeeService employeeService;
@@ -49,12 +86,27 @@ public class EmployeeServiceImplTest {
   @Autowired
   private CompensationRepository compensationRepository;
 
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ChangeLog changeLog;
+
   @Before
   public void setup() {
     employeeUrl = "http://localhost:" + port + "/employee";
     employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
     employeeIdReportingStructureUrl = "http://localhost:" + port + "/employee/{id}/reporting-structure";
     employeeIdCompensationUrl = "http://localhost:" + port + "/employee/{id}/compensation";
+    employeeIdSubtreeUrl = "http://localhost:" + port + "/employee/{id}/subtree";
+    bulkEmployeeUrl = "http://localhost:" + port + "/employee/_bulk";
+    bulkCompensationUrl = "http://localhost:" + port + "/compensation/_bulk";
     // Clean up compensation repository before each test
     compensationRepository.deleteAll();
   }
@@ -94,6 +146,95 @@ public class EmployeeServiceImplTest {
     assertEmployeeEquivalence(readEmployee, updatedEmployee);
   }
 
+  @Test
+  public void testOptimisticLocking() {
+    Employee createdEmployee = employeeService.create(createUniqueEmployee("Versioned"));
+    assertEquals(Long.valueOf(0), createdEmployee.getVersion());
+
+    Employee firstCopy = copyOf(createdEmployee);
+    Employee secondCopy = copyOf(createdEmployee);
+
+    firstCopy.setPosition("Development Manager");
+    assertEquals(Long.valueOf(1), employeeService.update(firstCopy).getVersion());
+
+    // The second writer still holds version 0
+    secondCopy.setPosition("Architect");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    assertEquals(HttpStatus.CONFLICT, restTemplate.exchange(employeeIdUrl, HttpMethod.PUT,
+        new HttpEntity<>(secondCopy, headers), String.class, createdEmployee.getEmployeeId()).getStatusCode());
+    assertThrows(OptimisticLockingFailureException.class, () -> employeeService.update(secondCopy));
+
+    // Without a version the update applies on top of the stored one
+    secondCopy.setVersion(null);
+    assertEquals(Long.valueOf(2), employeeService.update(secondCopy).getVersion());
+  }
+
+  @Test
+  public void testVersionedUpdateOfUnknownEmployee() {
+    Employee unknownEmployee = createUniqueEmployee("Unknown");
+    unknownEmployee.setEmployeeId(UUID.randomUUID().toString());
+    unknownEmployee.setVersion(0L);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange(employeeIdUrl, HttpMethod.PUT,
+        new HttpEntity<>(unknownEmployee, headers), String.class, unknownEmployee.getEmployeeId()).getStatusCode());
+
+    // Still not found when the id gets past the filter, the way a false positive would
+    employeeIdFilter.put(unknownEmployee.getEmployeeId());
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.update(unknownEmployee));
+  }
+
+  @Test
+  public void testPatch() {
+    Employee report = employeeService.create(createUniqueEmployee("PatchReport"));
+    Employee createdEmployee = employeeService.create(createUniqueEmployee("Patched"));
+    String createdEmployeeId = createdEmployee.getEmployeeId();
+
+    Map<String, Object> patch = new HashMap<>();
+    patch.put("position", "Development Manager");
+    patch.put("department", null);
+    patch.put("version", 0);
+    Employee patchedEmployee = employeeService.patch(createdEmployeeId, patch);
+
+    assertEquals("Development Manager", patchedEmployee.getPosition());
+    assertNull(patchedEmployee.getDepartment());
+    assertEquals("Patched", patchedEmployee.getLastName());
+    assertEquals(Long.valueOf(1), patchedEmployee.getVersion());
+
+    // Replaying the same patch carries a stale version
+    assertThrows(OptimisticLockingFailureException.class, () -> employeeService.patch(createdEmployeeId, patch));
+    assertThrows(InvalidRequestException.class,
+        () -> employeeService.patch(createdEmployeeId, Collections.singletonMap("salary", 1)));
+
+    Employee manager = employeeService.addDirectReports(createdEmployeeId,
+        Collections.singletonList(report.getEmployeeId()));
+    manager = employeeService.addDirectReports(createdEmployeeId, Collections.singletonList(report.getEmployeeId()));
+    assertEquals(Collections.singletonList(report.getEmployeeId()), manager.getDirectReportIds());
+    assertEquals(1, employeeService.getReportingStructure(createdEmployeeId).getNumberOfReports());
+  }
+
+  @Test
+  public void testReadExpanded() {
+    // John Lennon's second direct report is Ringo Starr, who manages Pete Best
+    Employee expanded = employeeService.readExpanded("16a596ae-edd3-4847-99fe-c4518e82c86f", 2);
+    Employee ringo = expanded.getDirectReports().get(1);
+    assertEquals("Ringo", ringo.getFirstName());
+    assertEquals("Pete", ringo.getDirectReports().get(0).getFirstName());
+
+    // Plain reads still render direct reports as references, so expansion left the cache alone
+    Employee john = employeeService.read("16a596ae-edd3-4847-99fe-c4518e82c86f");
+    assertNull(john.getDirectReports().get(1).getFirstName());
+
+    String json = restTemplate.getForEntity(employeeIdUrl + "?expand=directReports&depth=1", String.class,
+        "16a596ae-edd3-4847-99fe-c4518e82c86f").getBody();
+    assertTrue(json.contains("\"firstName\":\"Ringo\""));
+
+    assertThrows(InvalidRequestException.class,
+        () -> employeeService.readExpanded("16a596ae-edd3-4847-99fe-c4518e82c86f", -1));
+  }
+
   @Test
   public void testReportingStructure() {
     // John Lennon has 4 reports
@@ -104,6 +245,354 @@ public class EmployeeServiceImplTest {
     assertEquals(4, reportingStructure.getNumberOfReports());
   }
 
+  @Test
+  public void testReportingStructureOptions() {
+    String johnLennonId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    // Paul and Ringo report to John, and Pete and George to Ringo
+    ReportingStructure byDepth = employeeService.getReportingStructure(johnLennonId, Integer.MAX_VALUE, true);
+    assertEquals(4, byDepth.getNumberOfReports());
+    assertEquals(Arrays.asList(2, 2), byDepth.getReportsByDepth());
+
+    ReportingStructure directOnly = employeeService.getReportingStructure(johnLennonId, 1, false);
+    assertEquals(2, directOnly.getNumberOfReports());
+    assertNull(directOnly.getReportsByDepth());
+
+    String counts = restTemplate.getForEntity(employeeIdReportingStructureUrl + "?view=counts&byDepth=true",
+        String.class, johnLennonId).getBody();
+    assertNotNull(counts);
+    assertTrue(counts.contains("\"reportsByDepth\":[2,2]"));
+    assertTrue(!counts.contains("\"employee\""));
+
+    assertThrows(InvalidRequestException.class, () -> employeeService.getReportingStructure(johnLennonId, 0, false));
+    assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(employeeIdReportingStructureUrl + "?view=all",
+        String.class, johnLennonId).getStatusCode());
+  }
+
+  @Test
+  public void testConditionalGet() {
+    Employee manager = employeeService.create(createUniqueEmployee("ETagManager"));
+    Employee report = employeeService.create(createUniqueEmployee("ETagReport"));
+    manager = employeeService.addDirectReports(manager.getEmployeeId(),
+        Collections.singletonList(report.getEmployeeId()));
+
+    ResponseEntity<String> employee = restTemplate.getForEntity(employeeIdUrl, String.class,
+        manager.getEmployeeId());
+    ResponseEntity<String> reportingStructure = restTemplate.getForEntity(employeeIdReportingStructureUrl,
+        String.class, manager.getEmployeeId());
+    assertNotNull(employee.getHeaders().getETag());
+    assertEquals("no-cache", reportingStructure.getHeaders().getCacheControl());
+    // Not the bare version, which a restarted store hands out again for different content
+    assertNotEquals("\"" + manager.getVersion() + "\"", employee.getHeaders().getETag());
+
+    assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(employeeIdUrl, employee, manager).getStatusCode());
+    assertEquals(HttpStatus.NOT_MODIFIED,
+        conditionalGet(employeeIdReportingStructureUrl, reportingStructure, manager).getStatusCode());
+
+    // A change below the manager leaves their document alone but not their reporting structure
+    employeeService.patch(report.getEmployeeId(), Collections.singletonMap("position", "Developer III"));
+
+    assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(employeeIdUrl, employee, manager).getStatusCode());
+    assertEquals(HttpStatus.OK,
+        conditionalGet(employeeIdReportingStructureUrl, reportingStructure, manager).getStatusCode());
+  }
+
+  @Test
+  public void testLargeReportingStructureIsCompressed() throws IOException, InterruptedException {
+    Employee manager = employeeService.create(createUniqueEmployee("CompressedManager"));
+    List<String> reportIds = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      reportIds.add(employeeService.create(createUniqueEmployee("CompressedReport")).getEmployeeId());
+    }
+    employeeService.addDirectReports(manager.getEmployeeId(), reportIds);
+
+    // The JDK client leaves the body and Content-Encoding as sent, unlike clients that decompress on their own
+    HttpRequest request = HttpRequest.newBuilder(URI.create(
+            employeeIdReportingStructureUrl.replace("{id}", manager.getEmployeeId())))
+        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .build();
+    HttpResponse<byte[]> response = HttpClient.newHttpClient()
+        .send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+    assertEquals(HttpStatus.OK.value(), response.statusCode());
+    assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+    assertTrue(response.headers().firstValue(HttpHeaders.ETAG).orElse("").startsWith("W/"));
+  }
+
+  private ResponseEntity<String> conditionalGet(String url, ResponseEntity<String> previous, Employee employee) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(previous.getHeaders().getETag());
+    return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class,
+        employee.getEmployeeId());
+  }
+
+  @Test
+  public void testReportingStructureMetrics() {
+    employeeService.getReportingStructure("16a596ae-edd3-4847-99fe-c4518e82c86f");
+
+    assertNotNull(meterRegistry.find("employee.service").tag("method", "getReportingStructure").timer());
+    assertNotNull(meterRegistry.find("reporting.structure.repository.calls").tag("source", "index")
+        .tag("fanout", "2-3").summary());
+  }
+
+  @Test
+  public void testReportingStructureWithCycle() {
+    // Manager reports to their own direct report; each employee is counted once
+    Employee report = employeeService.create(createUniqueEmployee("CycleReport"));
+    Employee manager = createUniqueEmployee("CycleManager");
+    manager.setDirectReports(Collections.singletonList(report));
+    manager = employeeService.create(manager);
+
+    report.setDirectReports(Collections.singletonList(manager));
+    employeeService.update(report);
+
+    ReportingStructure reportingStructure = employeeService.getReportingStructure(manager.getEmployeeId());
+    assertEquals(1, reportingStructure.getNumberOfReports());
+  }
+
+  @Test
+  public void testListEmployees() {
+    CursorPage<Employee> firstPage = employeeService.list(null, 2);
+    assertEquals(2, firstPage.getItems().size());
+    assertNotNull(firstPage.getNextCursor());
+
+    CursorPage<Employee> secondPage = employeeService.list(firstPage.getNextCursor(), 2);
+    assertTrue(secondPage.getItems().get(0).getEmployeeId().compareTo(firstPage.getNextCursor()) > 0);
+
+    assertThrows(InvalidRequestException.class, () -> employeeService.list(null, 0));
+  }
+
+  @Test
+  public void testUnknownIdsAreFiltered() {
+    // Stored behind the service's back, so the filter has never seen the id
+    Employee employee = createUniqueEmployee("Unfiltered");
+    employee.setEmployeeId(UUID.randomUUID().toString());
+    employeeRepository.insert(employee);
+
+    EmployeeNotFoundException notFound = assertThrows(EmployeeNotFoundException.class,
+        () -> employeeService.read(employee.getEmployeeId()));
+    assertEquals(0, notFound.getStackTrace().length);
+
+    employeeIdFilter.rebuild();
+    assertEquals("Unfiltered", employeeService.read(employee.getEmployeeId()).getLastName());
+
+    // Ids written through the service are known right away
+    Employee created = employeeService.create(createUniqueEmployee("Filtered"));
+    assertTrue(employeeIdFilter.mightContain(created.getEmployeeId()));
+  }
+
+  @Test
+  public void testSearchEmployees() {
+    CursorPage<Employee> lennons = restTemplate
+        .exchange(employeeUrl + "/_search?q=lenn", HttpMethod.GET, null,
+            new ParameterizedTypeReference<CursorPage<Employee>>() { })
+        .getBody();
+    assertNotNull(lennons);
+    assertEquals("16a596ae-edd3-4847-99fe-c4518e82c86f", lennons.getItems().get(0).getEmployeeId());
+
+    // Pete Best is the only Developer II
+    CursorPage<Employee> developers = employeeService.search("Developer II", null, 10);
+    assertEquals("62c1084e-6e34-4630-93fd-9153afb65309", developers.getItems().get(0).getEmployeeId());
+
+    // Writes are searchable right away, and stop matching their old names
+    Employee employee = employeeService.create(createUniqueEmployee("Searchable"));
+    assertEquals(employee.getEmployeeId(), employeeService.search("searchab", null, 10).getItems().get(0)
+        .getEmployeeId());
+
+    employee.setLastName("Findable");
+    employeeService.update(employee);
+    assertTrue(employeeService.search("searchable", null, 10).getItems().isEmpty());
+
+    CursorPage<Employee> firstPage = employeeService.search("developer", null, 2);
+    assertEquals(2, firstPage.getItems().size());
+    CursorPage<Employee> secondPage = employeeService.search("developer", firstPage.getNextCursor(), 2);
+    assertEquals("2", firstPage.getNextCursor());
+    assertTrue(employeeIds(firstPage.getItems()).stream()
+        .noneMatch(employeeIds(secondPage.getItems())::contains));
+
+    assertThrows(InvalidRequestException.class, () -> employeeService.search(" ", null, 10));
+    assertThrows(InvalidRequestException.class, () -> employeeService.search("john", "-1", 10));
+  }
+
+  @Test
+  public void testExportSubtree() {
+    // John Lennon and their 4 reports, one employee per line
+    String export = restTemplate
+        .getForEntity(employeeIdSubtreeUrl, String.class, "16a596ae-edd3-4847-99fe-c4518e82c86f")
+        .getBody();
+    assertNotNull(export);
+    assertEquals(5, export.split("\n").length);
+  }
+
+  @Test
+  public void testWritesArePublishedToChangeLog() throws InterruptedException {
+    long fromSequence = changeLog.getNextSequence();
+
+    Employee employee = employeeService.create(createUniqueEmployee("Published"));
+    employeeService.patch(employee.getEmployeeId(), Collections.singletonMap("position", "Developer II"));
+    employeeService.createCompensation(employee.getEmployeeId(),
+        new Compensation(90_000, LocalDate.of(2024, 1, 1), employee.getEmployeeId()));
+
+    List<ChangeEvent.Type> types = new ArrayList<>();
+    for (ChangeEvent event : changeLog.read(fromSequence, 1000, Duration.ZERO)) {
+      if (employee.getEmployeeId().equals(event.getEmployeeId())) {
+        types.add(event.getType());
+      }
+    }
+    assertEquals(Arrays.asList(ChangeEvent.Type.EMPLOYEE_CREATED, ChangeEvent.Type.EMPLOYEE_UPDATED,
+        ChangeEvent.Type.COMPENSATION_CREATED), types);
+  }
+
+  @Test
+  public void testConcurrentWritesAreVersionedInChangeLog() throws Exception {
+    Employee employee = employeeService.create(createUniqueEmployee("Contended"));
+    long fromSequence = changeLog.getNextSequence();
+
+    int writers = 8;
+    int writesPerWriter = 25;
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<?>> writes = new ArrayList<>();
+      for (int writer = 0; writer < writers; writer++) {
+        String position = "Writer " + writer;
+        writes.add(executor.submit(() -> {
+          for (int i = 0; i < writesPerWriter; i++) {
+            employeeService.patch(employee.getEmployeeId(),
+                Collections.singletonMap("position", position + "." + i));
+          }
+        }));
+      }
+      for (Future<?> write : writes) {
+        write.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    // Whatever order the events were appended in, each carries its own version and the newest is what was stored
+    Set<Long> versions = new HashSet<>();
+    ChangeEvent newest = null;
+    for (ChangeEvent event : changeLog.read(fromSequence, 10_000, Duration.ZERO)) {
+      if (employee.getEmployeeId().equals(event.getEmployeeId())) {
+        assertTrue(versions.add(event.getVersion()));
+        if (newest == null || event.getVersion() > newest.getVersion()) {
+          newest = event;
+        }
+      }
+    }
+    assertEquals(writers * writesPerWriter, versions.size());
+
+    Employee stored = employeeService.read(employee.getEmployeeId());
+    assertNotNull(newest);
+    assertEquals(stored.getVersion(), newest.getVersion());
+    assertEquals(stored.getPosition(), ((Employee) newest.getData()).getPosition());
+  }
+
+  @Test
+  public void testBinaryWireFormats() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(Collections.singletonList(MediaType.parseMediaType("application/x-jackson-smile")));
+
+    ResponseEntity<byte[]> response = restTemplate.exchange(employeeIdUrl, HttpMethod.GET, new HttpEntity<>(headers),
+        byte[].class, "16a596ae-edd3-4847-99fe-c4518e82c86f");
+    assertEquals("application/x-jackson-smile", response.getHeaders().getContentType().toString());
+
+    Employee employee = Jackson2ObjectMapperBuilder.smile().build().readValue(response.getBody(), Employee.class);
+    assertEquals("John", employee.getFirstName());
+    assertEquals(2, employee.getDirectReports().size());
+
+    // The Smile rendering is tagged apart from the JSON one, and caches are told the two vary by Accept
+    assertTrue(response.getHeaders().getVary().contains(HttpHeaders.ACCEPT));
+    ResponseEntity<String> json = restTemplate.getForEntity(employeeIdUrl, String.class,
+        "16a596ae-edd3-4847-99fe-c4518e82c86f");
+    assertNotEquals(json.getHeaders().getETag(), response.getHeaders().getETag());
+
+    headers.setIfNoneMatch(json.getHeaders().getETag());
+    assertEquals(HttpStatus.OK, restTemplate.exchange(employeeIdUrl, HttpMethod.GET, new HttpEntity<>(headers),
+        byte[].class, "16a596ae-edd3-4847-99fe-c4518e82c86f").getStatusCode());
+    headers.setIfNoneMatch(response.getHeaders().getETag());
+    assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange(employeeIdUrl, HttpMethod.GET,
+        new HttpEntity<>(headers), byte[].class, "16a596ae-edd3-4847-99fe-c4518e82c86f").getStatusCode());
+  }
+
+  @Test
+  public void testBatchRead() {
+    // John Lennon and Paul McCartney, plus an unknown id and a repeat
+    EmployeeBatch batch = restTemplate.postForEntity(employeeUrl + "/_batch",
+        Arrays.asList("b7839309-3348-463b-a7e3-5de1c168beb3", "unknown", "16a596ae-edd3-4847-99fe-c4518e82c86f",
+            "b7839309-3348-463b-a7e3-5de1c168beb3"),
+        EmployeeBatch.class).getBody();
+    assertNotNull(batch);
+    assertEquals(2, batch.getFound().size());
+    assertEquals("Paul", batch.getFound().get(0).getFirstName());
+    assertEquals("John", batch.getFound().get(1).getFirstName());
+    assertEquals(Collections.singletonList("unknown"), batch.getMissing());
+
+    assertThrows(InvalidRequestException.class, () -> employeeService.readAll(Collections.emptyList()));
+    assertThrows(InvalidRequestException.class,
+        () -> employeeService.readAll(Collections.nCopies(501, "16a596ae-edd3-4847-99fe-c4518e82c86f")));
+  }
+
+  @Test
+  public void testManagementChain() {
+    // Pete Best reports to Ringo Starr, who reports to John Lennon
+    Employee[] chain = restTemplate
+        .getForEntity(employeeIdUrl + "/management-chain", Employee[].class, "62c1084e-6e34-4630-93fd-9153afb65309")
+        .getBody();
+    assertNotNull(chain);
+    assertEquals(2, chain.length);
+    assertEquals("Ringo", chain[0].getFirstName());
+    assertEquals("John", chain[1].getFirstName());
+
+    // Moving a manager takes the paths of everyone below them along
+    Employee report = employeeService.create(createUniqueEmployee("ChainReport"));
+    Employee middle = employeeService.create(createUniqueEmployee("ChainMiddle"));
+    Employee first = employeeService.create(createUniqueEmployee("ChainFirst"));
+    Employee second = employeeService.create(createUniqueEmployee("ChainSecond"));
+    employeeService.addDirectReports(middle.getEmployeeId(), Collections.singletonList(report.getEmployeeId()));
+    employeeService.addDirectReports(first.getEmployeeId(), Collections.singletonList(middle.getEmployeeId()));
+
+    assertEquals(Arrays.asList(middle.getEmployeeId(), first.getEmployeeId()),
+        employeeIds(employeeService.getManagementChain(report.getEmployeeId())));
+
+    employeeService.addDirectReports(second.getEmployeeId(), Collections.singletonList(middle.getEmployeeId()));
+
+    assertEquals(Arrays.asList(middle.getEmployeeId(), second.getEmployeeId()),
+        employeeIds(employeeService.getManagementChain(report.getEmployeeId())));
+    assertTrue(employeeService.getManagementChain(second.getEmployeeId()).isEmpty());
+
+    List<Employee> exported = new ArrayList<>();
+    employeeService.exportSubtree(second.getEmployeeId(), exported::add);
+    assertEquals(3, exported.size());
+  }
+
+  @Test
+  public void testMovedReportLeavesPreviousManager() {
+    Employee report = employeeService.create(createUniqueEmployee("MovedReport"));
+    Employee first = employeeService.create(createUniqueEmployee("MovedFirst"));
+    Employee second = employeeService.create(createUniqueEmployee("MovedSecond"));
+    employeeService.addDirectReports(first.getEmployeeId(), Collections.singletonList(report.getEmployeeId()));
+
+    // Listing the report under the second manager takes them off the first one's stored document too
+    second.setDirectReports(Collections.singletonList(Employee.reference(report.getEmployeeId())));
+    employeeService.update(second);
+
+    Employee stored = employeeRepository.findByEmployeeId(first.getEmployeeId());
+    assertTrue(stored.getDirectReportIds().isEmpty());
+    assertEquals(0, employeeService.getReportingStructure(first.getEmployeeId()).getNumberOfReports());
+    assertEquals(1, employeeService.getReportingStructure(second.getEmployeeId()).getNumberOfReports());
+    assertTrue(employeeService.read(first.getEmployeeId()).getDirectReportIds().isEmpty());
+  }
+
+  private static List<String> employeeIds(List<Employee> employees) {
+    List<String> employeeIds = new ArrayList<>();
+    for (Employee employee : employees) {
+      employeeIds.add(employee.getEmployeeId());
+    }
+    return employeeIds;
+  }
+
   @Test
   public void testCreateReadCompensation() {
     // Create a new employee
@@ -124,16 +613,76 @@ public class EmployeeServiceImplTest {
         .getBody();
     assertNotNull(createdCompensation);
     assertEquals(100000.0, createdCompensation.getSalary(), 0.01);
-    assertEquals(LocalDate.now().toString(), createdCompensation.getEffectiveDate());
+    assertEquals(LocalDate.now(), createdCompensation.getEffectiveDate());
     assertEquals(createdEmployeeId, createdCompensation.getEmployeeId());
   }
 
+  @Test
+  public void testCompensationHistory() {
+    Employee createdEmployee = employeeService.create(createUniqueEmployee("CompHistory"));
+    String createdEmployeeId = createdEmployee.getEmployeeId();
+
+    for (int year = 2021; year <= 2023; year++) {
+      employeeService.createCompensation(createdEmployeeId,
+          new Compensation(100000.0 + (year - 2021) * 10000.0, LocalDate.of(year, 1, 1), createdEmployeeId));
+    }
+
+    // Current and point-in-time reads
+    assertEquals(120000.0, employeeService.getCompensation(createdEmployeeId, null).getSalary(), 0.01);
+    assertEquals(110000.0,
+        employeeService.getCompensation(createdEmployeeId, LocalDate.of(2022, 6, 30)).getSalary(), 0.01);
+    assertEquals(110000.0,
+        employeeService.getCompensation(createdEmployeeId, LocalDate.of(2022, 1, 1)).getSalary(), 0.01);
+    assertThrows(CompensationNotFoundException.class,
+        () -> employeeService.getCompensation(createdEmployeeId, LocalDate.of(2020, 12, 31)));
+
+    // History is newest first and paged by effective date
+    CursorPage<Compensation> firstPage = employeeService.getCompensationHistory(createdEmployeeId, null, 2);
+    assertEquals(2, firstPage.getItems().size());
+    assertEquals(LocalDate.of(2023, 1, 1), firstPage.getItems().get(0).getEffectiveDate());
+    assertEquals("2022-01-01", firstPage.getNextCursor());
+
+    CursorPage<Compensation> secondPage = employeeService.getCompensationHistory(createdEmployeeId,
+        LocalDate.parse(firstPage.getNextCursor()), 2);
+    assertEquals(1, secondPage.getItems().size());
+    assertEquals(LocalDate.of(2021, 1, 1), secondPage.getItems().get(0).getEffectiveDate());
+    assertNull(secondPage.getNextCursor());
+  }
+
+  @Test
+  public void testBulkCreate() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+    String employees = "{\"employeeId\": \"bulk-manager\", \"firstName\": \"Bulk\", "
+        + "\"directReports\": [{\"employeeId\": \"bulk-report\"}]}\n"
+        + "{\"employeeId\": \"bulk-report\", \"firstName\": \"Bulk\"}\n";
+    String[] employeeResults = restTemplate.postForEntity(bulkEmployeeUrl,
+        new HttpEntity<>(employees, headers), String.class).getBody().split("\n");
+
+    assertEquals(2, employeeResults.length);
+    assertTrue(employeeResults[0].contains("\"status\":\"CREATED\""));
+    assertTrue(employeeResults[1].contains("\"index\":1"));
+    assertEquals(1, employeeService.getReportingStructure("bulk-manager").getNumberOfReports());
+
+    String compensations = "[{\"employeeId\": \"bulk-report\", \"salary\": 100000.0}, "
+        + "{\"employeeId\": \"nonexistent-id\", \"salary\": 100000.0}]";
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    String[] compensationResults = restTemplate.postForEntity(bulkCompensationUrl,
+        new HttpEntity<>(compensations, headers), String.class).getBody().split("\n");
+
+    assertEquals(2, compensationResults.length);
+    assertTrue(compensationResults[0].contains("\"status\":\"CREATED\""));
+    assertTrue(compensationResults[1].contains("\"status\":\"FAILED\""));
+    assertEquals(100000.0, employeeService.getCompensation("bulk-report", null).getSalary(), 0.01);
+  }
+
   @Test
   public void testEmployeeNotFoundException() {
     // Test that an exception is thrown if the employee ID does not exist
     assertThrows(EmployeeNotFoundException.class, () -> employeeService.read("nonexistent-id"));
     assertThrows(EmployeeNotFoundException.class, () -> employeeService.getReportingStructure("nonexistent-id"));
-    assertThrows(EmployeeNotFoundException.class, () -> employeeService.getCompensation("nonexistent-id"));
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.getCompensation("nonexistent-id", null));
     Compensation compensation = new Compensation();
     compensation.setEmployeeId("nonexistent-id");
     assertThrows(EmployeeNotFoundException.class,
@@ -160,7 +709,7 @@ public class EmployeeServiceImplTest {
 
     // Test that an exception is thrown if the compensation does not exist for an
     // existing employee
-    assertThrows(CompensationNotFoundException.class, () -> employeeService.getCompensation(createdEmployeeId));
+    assertThrows(CompensationNotFoundException.class, () -> employeeService.getCompensation(createdEmployeeId, null));
   }
 
   private Employee createUniqueEmployee(String testName) {
@@ -173,6 +722,17 @@ public class EmployeeServiceImplTest {
     return employee;
   }
 
+  private static Employee copyOf(Employee employee) {
+    Employee copy = new Employee();
+    copy.setEmployeeId(employee.getEmployeeId());
+    copy.setVersion(employee.getVersion());
+    copy.setFirstName(employee.getFirstName());
+    copy.setLastName(employee.getLastName());
+    copy.setDepartment(employee.getDepartment());
+    copy.setPosition(employee.getPosition());
+    return copy;
+  }
+
   private static void assertEmployeeEquivalence(Employee expected, Employee actual) {
     assertEquals(expected.getFirstName(), actual.getFirstName());
     assertEquals(expected.getLastName(), actual.getLastName());
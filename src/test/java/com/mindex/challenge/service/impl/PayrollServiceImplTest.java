@@ -0,0 +1,101 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.PayrollStatistics;
+import com.mindex.challenge.data.PayrollSummary;
+import com.mindex.challenge.exception.EmployeeNotFoundException;
+import com.mindex.challenge.exception.InvalidRequestException;
+import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.PayrollService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PayrollServiceImplTest {
+
+  @Autowired
+  private PayrollService payrollService;
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Test
+  public void testPayrollSummary() {
+    Employee engineer = employeeService.create(createEmployee("Engineer", "Engineering"));
+    Employee salesperson = employeeService.create(createEmployee("Salesperson", "Sales"));
+    Employee manager = createEmployee("Manager", "Engineering");
+    manager.setDirectReports(Arrays.asList(engineer, salesperson));
+    manager = employeeService.create(manager);
+
+    createCompensation(manager, 100000.0, LocalDate.of(2024, 1, 1));
+    createCompensation(engineer, 80000.0, LocalDate.of(2024, 1, 1));
+    createCompensation(salesperson, 60000.0, LocalDate.of(2024, 1, 1));
+
+    PayrollStatistics total = payrollService.getPayrollSummary(manager.getEmployeeId(), null).getTotal();
+    assertEquals(3, total.getHeadcount());
+    assertEquals(240000.0, total.getTotalSalary(), 0.01);
+    assertEquals(80000.0, total.getMeanSalary(), 0.01);
+    assertEquals(60000.0, total.getMinSalary(), 0.01);
+    assertEquals(100000.0, total.getMaxSalary(), 0.01);
+    assertEquals(80000.0, total.getMedianSalary(), 0.01);
+
+    PayrollSummary byDepartment = payrollService.getPayrollSummary(manager.getEmployeeId(), "department");
+    assertEquals(2, byDepartment.getDepartments().get("Engineering").getHeadcount());
+    assertEquals(60000.0, byDepartment.getDepartments().get("Sales").getTotalSalary(), 0.01);
+
+    // A raise under the manager invalidates the cached summary; one that is not yet
+    // in effect is left out
+    createCompensation(salesperson, 90000.0, LocalDate.of(2025, 1, 1));
+    createCompensation(engineer, 500000.0, LocalDate.now().plusYears(1));
+    total = payrollService.getPayrollSummary(manager.getEmployeeId(), null).getTotal();
+    assertEquals(270000.0, total.getTotalSalary(), 0.01);
+
+    // Reports are summarized on their own
+    PayrollStatistics engineerTotal = payrollService.getPayrollSummary(engineer.getEmployeeId(), null).getTotal();
+    assertEquals(1, engineerTotal.getHeadcount());
+    assertEquals(80000.0, engineerTotal.getTotalSalary(), 0.01);
+  }
+
+  @Test
+  public void testPayrollSummaryWithoutCompensation() {
+    Employee employee = employeeService.create(createEmployee("Uncompensated", "Engineering"));
+
+    PayrollStatistics total = payrollService.getPayrollSummary(employee.getEmployeeId(), null).getTotal();
+    assertEquals(1, total.getHeadcount());
+    assertEquals(0, total.getCompensatedHeadcount());
+    assertNull(total.getMeanSalary());
+  }
+
+  @Test
+  public void testInvalidPayrollSummaryRequests() {
+    assertThrows(EmployeeNotFoundException.class, () -> payrollService.getPayrollSummary("nonexistent-id", null));
+    assertThrows(InvalidRequestException.class,
+        () -> payrollService.getPayrollSummary("16a596ae-edd3-4847-99fe-c4518e82c86f", "position"));
+  }
+
+  private void createCompensation(Employee employee, double salary, LocalDate effectiveDate) {
+    employeeService.createCompensation(employee.getEmployeeId(),
+        new Compensation(salary, effectiveDate, employee.getEmployeeId()));
+  }
+
+  private static Employee createEmployee(String lastName, String department) {
+    Employee employee = new Employee();
+    employee.setFirstName("John");
+    employee.setLastName(lastName);
+    employee.setDepartment(department);
+    employee.setPosition("Developer");
+    return employee;
+  }
+}
@@ -0,0 +1,132 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.EmployeeIdFilter;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.exception.EmployeeNotFoundException;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReactiveEmployeeServiceImplTest {
+
+  private String employeeUrl;
+  private String employeeIdReportingStructureUrl;
+
+  @Autowired
+  private ReactiveEmployeeService employeeService;
+
+  @Autowired
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired
+  private EmployeeIdFilter employeeIdFilter;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Before
+  public void setup() {
+    employeeUrl = "http://localhost:" + port + "/reactive/employee";
+    employeeIdReportingStructureUrl = "http://localhost:" + port + "/reactive/employee/{id}/reporting-structure";
+  }
+
+  @Test
+  public void testCreateRead() {
+    Employee testEmployee = new Employee();
+    testEmployee.setFirstName("Jane");
+    testEmployee.setLastName("Reactive");
+    testEmployee.setDepartment("Engineering");
+    testEmployee.setPosition("Developer");
+
+    Employee createdEmployee = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+    assertNotNull(createdEmployee);
+    assertNotNull(createdEmployee.getEmployeeId());
+
+    Employee readEmployee = employeeService.read(createdEmployee.getEmployeeId()).block();
+    assertNotNull(readEmployee);
+    assertEquals("Reactive", readEmployee.getLastName());
+  }
+
+  @Test
+  public void testReportingStructure() {
+    // John Lennon has 4 reports
+    ReportingStructure reportingStructure = restTemplate
+        .getForEntity(employeeIdReportingStructureUrl, ReportingStructure.class, "16a596ae-edd3-4847-99fe-c4518e82c86f")
+        .getBody();
+    assertNotNull(reportingStructure);
+    assertEquals(4, reportingStructure.getNumberOfReports());
+  }
+
+  @Test
+  public void testReportingStructureWithoutIndex() {
+    // Saved straight through the repository, so the org chart index has never seen them and the
+    // count comes from the batched repository walk. The last report loops back to the top
+    String managerId = UUID.randomUUID().toString();
+    String firstReportId = UUID.randomUUID().toString();
+    String secondReportId = UUID.randomUUID().toString();
+    String nestedReportId = UUID.randomUUID().toString();
+
+    employeeRepository.saveAll(Arrays.asList(
+            unindexedEmployee(managerId, Arrays.asList(firstReportId, secondReportId)),
+            unindexedEmployee(firstReportId, Collections.singletonList(nestedReportId)),
+            unindexedEmployee(secondReportId, null),
+            unindexedEmployee(nestedReportId, Collections.singletonList(managerId))))
+        .blockLast();
+    employeeIdFilter.put(managerId);
+
+    Mono<ReportingStructure> reportingStructure = employeeService.getReportingStructure(managerId);
+    assertEquals(3, reportingStructure.block().getNumberOfReports());
+    // Subscribing again walks the chart again rather than reusing the first walk's visited set
+    assertEquals(3, reportingStructure.block().getNumberOfReports());
+  }
+
+  @Test
+  public void testEmployeeNotFoundException() {
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.read("nonexistent-id").block());
+    assertThrows(EmployeeNotFoundException.class,
+        () -> employeeService.getReportingStructure("nonexistent-id").block());
+  }
+
+  @Test
+  public void testVersionedUpdateOfUnknownEmployee() {
+    Employee unknownEmployee = unindexedEmployee(UUID.randomUUID().toString(), null);
+    unknownEmployee.setVersion(0L);
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.update(unknownEmployee).block());
+
+    // Still not found when the id gets past the filter, the way a false positive would
+    employeeIdFilter.put(unknownEmployee.getEmployeeId());
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.update(unknownEmployee).block());
+  }
+
+  private static Employee unindexedEmployee(String employeeId, List<String> directReportIds) {
+    Employee employee = new Employee();
+    employee.setEmployeeId(employeeId);
+    employee.setFirstName("Unindexed");
+    employee.setLastName("Reactive");
+    employee.setDirectReportIds(directReportIds);
+    return employee;
+  }
+}
@@ -0,0 +1,122 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates reproducible org charts of a given shape and size for benchmarks and load tests. The first
+ * employee returned is always the top of the org chart.
+ */
+public final class SyntheticOrg {
+
+  private static final String[] FIRST_NAMES = {
+      "John", "Paul", "Ringo", "George", "Pete", "Yoko", "Linda", "Cynthia", "Brian", "Stuart",
+      "Mal", "Neil", "Derek", "Maureen", "Pattie", "Olivia", "Julian", "Sean", "Dhani", "Stella"
+  };
+
+  private static final String[] LAST_NAMES = {
+      "Lennon", "McCartney", "Starr", "Harrison", "Best", "Ono", "Eastman", "Powell", "Epstein", "Sutcliffe",
+      "Evans", "Aspinall", "Taylor", "Cox", "Boyd", "Arias", "Martin", "Preston", "Spector", "Klein"
+  };
+
+  private static final String[] POSITIONS = {
+      "Developer I", "Developer II", "Developer III", "Developer IV", "Developer V", "Development Manager"
+  };
+
+  private static final String[] DEPARTMENTS = {
+      "Engineering", "Finance", "Sales", "Operations"
+  };
+
+  private static final int BALANCED_FAN_OUT = 10;
+
+  public enum Shape {
+    // Everyone reports directly to the top of the org chart
+    WIDE,
+    // A single management chain as long as the org chart
+    DEEP,
+    // Every manager has the same number of direct reports
+    BALANCED;
+
+    int managerOf(int employee) {
+      switch (this) {
+        case WIDE:
+          return 0;
+        case DEEP:
+          return employee - 1;
+        default:
+          return (employee - 1) / BALANCED_FAN_OUT;
+      }
+    }
+  }
+
+  private SyntheticOrg() {
+  }
+
+  public static String employeeId(int employee) {
+    return String.format("synthetic-%08d", employee);
+  }
+
+  public static List<Employee> generate(Shape shape, int size) {
+    List<Employee> employees = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      employees.add(employee(i));
+    }
+
+    for (int i = 1; i < size; i++) {
+      Employee manager = employees.get(shape.managerOf(i));
+      if (manager.getDirectReportIds() == null) {
+        manager.setDirectReportIds(new ArrayList<>());
+      }
+      manager.getDirectReportIds().add(employeeId(i));
+    }
+
+    return employees;
+  }
+
+  public static List<Compensation> compensations(int size) {
+    LocalDate effectiveDate = LocalDate.of(2024, 1, 1);
+    List<Compensation> compensations = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      compensations.add(new Compensation(60_000 + (i % 100) * 1_500, effectiveDate, employeeId(i)));
+    }
+    return compensations;
+  }
+
+  /**
+   * Builds a single employee whose {@code directReports} are fully nested {@code depth} levels deep, with
+   * {@code width} reports per level of which only the first has reports of their own.
+   */
+  public static Employee nested(int depth, int width) {
+    // Built from the bottom up, as expanded direct reports are attached to copies
+    int next = depth * width;
+    Employee manager = employee(next--);
+
+    for (int level = 0; level < depth; level++) {
+      List<Employee> directReports = new ArrayList<>(width);
+      directReports.add(manager);
+      for (int i = 1; i < width; i++) {
+        directReports.add(employee(next--));
+      }
+
+      Employee parent = employee(next--);
+      parent.setDirectReports(directReports);
+      manager = parent.withExpandedDirectReports(directReports);
+    }
+
+    return manager;
+  }
+
+  private static Employee employee(int employee) {
+    Employee result = new Employee();
+    result.setEmployeeId(employeeId(employee));
+    result.setFirstName(FIRST_NAMES[employee % FIRST_NAMES.length]);
+    result.setLastName(LAST_NAMES[(employee / FIRST_NAMES.length) % LAST_NAMES.length]);
+    result.setPosition(POSITIONS[employee % POSITIONS.length]);
+    result.setDepartment(DEPARTMENTS[employee % DEPARTMENTS.length]);
+    return result;
+  }
+}